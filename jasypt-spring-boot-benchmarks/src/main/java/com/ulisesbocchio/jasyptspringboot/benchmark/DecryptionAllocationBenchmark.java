@@ -0,0 +1,85 @@
+package com.ulisesbocchio.jasyptspringboot.benchmark;
+
+import com.ulisesbocchio.jasyptspringboot.encryptor.EncryptorType;
+import com.ulisesbocchio.jasyptspringboot.encryptor.LazyStringEncryptor;
+import org.jasypt.encryption.StringEncryptor;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Measures the memory allocated and the time taken by a single decryption, for each {@link EncryptorType}. Every
+ * encryptor decrypts the same value, encrypted by the default {@code POOLED} encryptor, so the benchmark also checks
+ * that all types read the same format. Allocation is read from the JVM's per thread allocation counter, which
+ * HotSpot based JVMs provide through {@code com.sun.management.ThreadMXBean}.</p>
+ * <p>Configured through system properties:</p>
+ * <ul>
+ * <li>{@code allocation.operations}: measured decryptions per encryptor type, default {@code 10000}</li>
+ * <li>{@code allocation.warmupOperations}: discarded decryptions per encryptor type, default {@code 5000}</li>
+ * <li>{@code allocation.algorithm}: {@code jasypt.encryptor.algorithm}, default {@code PBEWithMD5AndDES}</li>
+ * <li>{@code allocation.keyObtentionIterations}: {@code jasypt.encryptor.keyObtentionIterations}, default
+ * {@code 1000}</li>
+ * </ul>
+ *
+ * @author Ulises Bocchio
+ */
+public class DecryptionAllocationBenchmark {
+
+    private static final String TOKEN = "4111-1111-1111-1111";
+
+    private final int operations = Integer.getInteger("allocation.operations", 10000);
+    private final int warmupOperations = Integer.getInteger("allocation.warmupOperations", 5000);
+    private final String algorithm = System.getProperty("allocation.algorithm", "PBEWithMD5AndDES");
+    private final String keyObtentionIterations = System.getProperty("allocation.keyObtentionIterations", "1000");
+
+    public static void main(String[] args) throws Exception {
+        new DecryptionAllocationBenchmark().run();
+        System.exit(0);
+    }
+
+    public void run() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("Thread allocation counters are not supported by this JVM");
+        }
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+        allocation.setThreadAllocatedMemoryEnabled(true);
+        String encrypted = encryptor(EncryptorType.POOLED).encrypt(TOKEN);
+        System.out.println(String.format("%-14s %12s %12s", "type", "bytes/op", "us/op"));
+        for (EncryptorType type : EncryptorType.values()) {
+            StringEncryptor encryptor = encryptor(type);
+            decrypt(encryptor, encrypted, warmupOperations);
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = allocation.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            decrypt(encryptor, encrypted, operations);
+            long duration = System.nanoTime() - start;
+            long allocated = allocation.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            System.out.println(String.format("%-14s %12d %12.1f", type, allocated / operations, duration / 1e3 / operations));
+        }
+    }
+
+    private static void decrypt(StringEncryptor encryptor, String encrypted, int operations) {
+        for (int i = 0; i < operations; i++) {
+            if (!TOKEN.equals(encryptor.decrypt(encrypted))) {
+                throw new IllegalStateException("Decryption failed");
+            }
+        }
+    }
+
+    private StringEncryptor encryptor(EncryptorType type) {
+        Map<String, Object> config = new LinkedHashMap<String, Object>();
+        config.put("jasypt.encryptor.password", PropertyLookupStressHarness.PASSWORD);
+        config.put("jasypt.encryptor.algorithm", algorithm);
+        config.put("jasypt.encryptor.keyObtentionIterations", keyObtentionIterations);
+        config.put("jasypt.encryptor.type", type.name());
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("allocation", config));
+        return new LazyStringEncryptor(environment);
+    }
+}
@@ -0,0 +1,131 @@
+package com.ulisesbocchio.jasyptspringboot.benchmark;
+
+import com.ulisesbocchio.jasyptspringboot.encryptor.LazyStringEncryptor;
+import com.ulisesbocchio.jasyptspringboot.salt.ThreadLocalRandomSaltGenerator;
+import org.jasypt.encryption.StringEncryptor;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures runtime encryption throughput of the default encryptor for each {@link Setup}, from 1 to N threads.
+ * Every operation encrypts a short token and decrypts it back, the way an application encrypting fields at runtime
+ * would, and checks the round trip. Encryptors are configured through {@code jasypt.encryptor.*} properties, as an
+ * application would configure them.</p>
+ * <p>Configured through system properties:</p>
+ * <ul>
+ * <li>{@code throughput.threads}: maximum number of threads, default {@code 2 * availableProcessors}</li>
+ * <li>{@code throughput.seconds}: measured time per run, default {@code 5}</li>
+ * <li>{@code throughput.warmupSeconds}: discarded time per run, default {@code 2}</li>
+ * <li>{@code throughput.keyObtentionIterations}: {@code jasypt.encryptor.keyObtentionIterations}, default
+ * {@code 1000}</li>
+ * </ul>
+ *
+ * @author Ulises Bocchio
+ */
+public class EncryptorThroughputBenchmark {
+
+    /**
+     * Encryptor configurations compared.
+     */
+    public enum Setup {
+        /**
+         * Default configuration: pooled encryptor with {@code RandomSaltGenerator}, one pool slot per thread.
+         */
+        POOLED,
+        /**
+         * Pooled encryptor, one pool slot per thread, with {@link ThreadLocalRandomSaltGenerator}.
+         */
+        POOLED_THREAD_LOCAL_SALT,
+        /**
+         * {@code jasypt.encryptor.type=THREAD_LOCAL}.
+         */
+        THREAD_LOCAL
+    }
+
+    private static final String TOKEN = "4111-1111-1111-1111";
+
+    private final int maxThreads = Integer.getInteger("throughput.threads", 2 * Runtime.getRuntime().availableProcessors());
+    private final long seconds = Long.getLong("throughput.seconds", 5);
+    private final long warmupSeconds = Long.getLong("throughput.warmupSeconds", 2);
+    private final String keyObtentionIterations = System.getProperty("throughput.keyObtentionIterations", "1000");
+
+    public static void main(String[] args) throws Exception {
+        new EncryptorThroughputBenchmark().run();
+        System.exit(0);
+    }
+
+    public void run() throws Exception {
+        System.out.println(String.format("%-26s %7s %14s", "setup", "threads", "round trips/s"));
+        for (Setup setup : Setup.values()) {
+            for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+                run(setup, threads);
+                if (threads == maxThreads) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void run(Setup setup, int threads) throws Exception {
+        final StringEncryptor encryptor = encryptor(setup, threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            measure(executor, encryptor, threads, TimeUnit.SECONDS.toNanos(warmupSeconds));
+            long duration = TimeUnit.SECONDS.toNanos(seconds);
+            long operations = measure(executor, encryptor, threads, duration);
+            System.out.println(String.format("%-26s %7d %14.0f", setup, threads, operations / (duration / 1e9)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private long measure(ExecutorService executor, final StringEncryptor encryptor, int threads, final long duration) throws Exception {
+        final long deadline = System.nanoTime() + duration;
+        List<Future<Long>> futures = new ArrayList<Future<Long>>(threads);
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    long operations = 0;
+                    while (System.nanoTime() < deadline) {
+                        if (!TOKEN.equals(encryptor.decrypt(encryptor.encrypt(TOKEN)))) {
+                            throw new IllegalStateException("Round trip failed");
+                        }
+                        operations++;
+                    }
+                    return operations;
+                }
+            }));
+        }
+        long operations = 0;
+        for (Future<Long> future : futures) {
+            operations += future.get();
+        }
+        return operations;
+    }
+
+    private StringEncryptor encryptor(Setup setup, int threads) {
+        Map<String, Object> config = new LinkedHashMap<String, Object>();
+        config.put("jasypt.encryptor.password", PropertyLookupStressHarness.PASSWORD);
+        config.put("jasypt.encryptor.keyObtentionIterations", keyObtentionIterations);
+        config.put("jasypt.encryptor.poolSize", String.valueOf(threads));
+        if (setup == Setup.POOLED_THREAD_LOCAL_SALT) {
+            config.put("jasypt.encryptor.saltGeneratorClassname", ThreadLocalRandomSaltGenerator.class.getName());
+        } else if (setup == Setup.THREAD_LOCAL) {
+            config.put("jasypt.encryptor.type", "THREAD_LOCAL");
+        }
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("throughput", config));
+        return new LazyStringEncryptor(environment);
+    }
+}
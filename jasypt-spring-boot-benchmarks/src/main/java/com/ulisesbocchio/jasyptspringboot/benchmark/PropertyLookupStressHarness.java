@@ -0,0 +1,291 @@
+package com.ulisesbocchio.jasyptspringboot.benchmark;
+
+import com.ulisesbocchio.jasyptspringboot.EncryptablePropertySourceConverter;
+import com.ulisesbocchio.jasyptspringboot.encryptor.LazyStringEncryptor;
+import com.ulisesbocchio.jasyptspringboot.environment.EncryptableEnvironment;
+import com.ulisesbocchio.jasyptspringboot.environment.EncryptableEnvironmentProxy;
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.PropertySourcesPropertyResolver;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p>Multi-threaded contention harness for property lookups through {@link EncryptableEnvironment},
+ * {@link EncryptableEnvironmentProxy} and the property source wrappers.</p>
+ * <p>Every target is read from 1 to N threads, on platform threads and, when the running JVM supports them, on
+ * virtual threads. Each thread reads a deterministic mix of plain and encrypted keys and checks every value against
+ * the expected plaintext. Throughput and p99 latency are reported per run. The harness exits with status 1 when any
+ * value does not match or when a run does not finish within the timeout, in which case deadlocked threads are
+ * dumped.</p>
+ * <p>Virtual threads require Java 21, and running on Java 17 or later requires
+ * {@code --add-opens java.base/java.lang=ALL-UNNAMED} for the CGLib proxies.</p>
+ * <p>Configured through system properties:</p>
+ * <ul>
+ * <li>{@code stress.threads}: maximum number of threads, default {@code 2 * availableProcessors}</li>
+ * <li>{@code stress.operations}: lookups per thread, default {@code 20000}</li>
+ * <li>{@code stress.keys}: number of distinct keys, default {@code 200}</li>
+ * <li>{@code stress.encryptedRatio}: fraction of keys that are encrypted, default {@code 0.1}</li>
+ * <li>{@code stress.poolSize}: {@code jasypt.encryptor.poolSize}, default {@code 4}</li>
+ * <li>{@code stress.timeoutSeconds}: time allowed for a single run, default {@code 120}</li>
+ * </ul>
+ *
+ * @author Ulises Bocchio
+ */
+public class PropertyLookupStressHarness {
+
+    static final String PASSWORD = "benchmark";
+
+    private final int maxThreads = Integer.getInteger("stress.threads", 2 * Runtime.getRuntime().availableProcessors());
+    private final int operations = Integer.getInteger("stress.operations", 20000);
+    private final int keys = Integer.getInteger("stress.keys", 200);
+    private final double encryptedRatio = Double.parseDouble(System.getProperty("stress.encryptedRatio", "0.1"));
+    private final String poolSize = System.getProperty("stress.poolSize", "4");
+    private final long timeoutSeconds = Long.getLong("stress.timeoutSeconds", 120);
+
+    private final Map<String, String> expected = new LinkedHashMap<String, String>();
+    private final Map<String, Object> raw = new LinkedHashMap<String, Object>();
+    private final String[] keyNames;
+
+    public PropertyLookupStressHarness() {
+        StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+        encryptor.setPassword(PASSWORD);
+        int encryptedEvery = encryptedRatio > 0 ? (int) Math.max(1, Math.round(1 / encryptedRatio)) : Integer.MAX_VALUE;
+        for (int i = 0; i < keys; i++) {
+            String key = "stress.group" + (i % 10) + ".key" + i;
+            String value = "value-" + i;
+            expected.put(key, value);
+            raw.put(key, i % encryptedEvery == 0 ? "ENC(" + encryptor.encrypt(value) + ")" : value);
+        }
+        keyNames = expected.keySet().toArray(new String[expected.size()]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean passed = new PropertyLookupStressHarness().run();
+        System.exit(passed ? 0 : 1);
+    }
+
+    public boolean run() throws Exception {
+        boolean passed = true;
+        System.out.println(String.format("%-40s %-9s %7s %14s %12s %12s %s", "target", "threads", "count", "ops/s", "p50 (us)", "p99 (us)", "result"));
+        for (Target target : targets()) {
+            for (ThreadKind kind : ThreadKind.available()) {
+                for (int threads : threadCounts()) {
+                    passed &= run(target, kind, threads);
+                }
+            }
+        }
+        return passed;
+    }
+
+    private List<Target> targets() {
+        List<Target> targets = new ArrayList<Target>();
+        targets.add(new Target("EncryptableEnvironment") {
+            @Override
+            PropertyResolver create() {
+                return new EncryptableEnvironment(environment(null));
+            }
+        });
+        targets.add(new Target("EncryptableEnvironmentProxy[WRAPPER]") {
+            @Override
+            PropertyResolver create() {
+                return new EncryptableEnvironmentProxy(environment(false));
+            }
+        });
+        targets.add(new Target("EncryptableEnvironmentProxy[PROXY]") {
+            @Override
+            PropertyResolver create() {
+                return new EncryptableEnvironmentProxy(environment(true));
+            }
+        });
+        targets.add(new Target("Wrapper[MapPropertySource]") {
+            @Override
+            PropertyResolver create() {
+                return wrapped(false);
+            }
+        });
+        targets.add(new Target("Proxy[MapPropertySource]") {
+            @Override
+            PropertyResolver create() {
+                return wrapped(true);
+            }
+        });
+        return targets;
+    }
+
+    private ConfigurableEnvironment environment(Boolean proxyPropertySources) {
+        StandardEnvironment environment = new StandardEnvironment();
+        Map<String, Object> config = new LinkedHashMap<String, Object>();
+        config.put("jasypt.encryptor.password", PASSWORD);
+        config.put("jasypt.encryptor.poolSize", poolSize);
+        if (proxyPropertySources != null) {
+            config.put("jasypt.encryptor.proxyPropertySources", proxyPropertySources.toString());
+        }
+        environment.getPropertySources().addFirst(new MapPropertySource("stressConfig", config));
+        environment.getPropertySources().addLast(new MapPropertySource("stress", new LinkedHashMap<String, Object>(raw)));
+        return environment;
+    }
+
+    private PropertyResolver wrapped(boolean proxy) {
+        ConfigurableEnvironment environment = environment(null);
+        StringEncryptor encryptor = new LazyStringEncryptor(environment);
+        MutablePropertySources propertySources = new MutablePropertySources();
+        PropertySource<?> source = new MapPropertySource("stress", new LinkedHashMap<String, Object>(raw));
+        propertySources.addLast(proxy ? EncryptablePropertySourceConverter.proxyPropertySource(source, encryptor)
+                : EncryptablePropertySourceConverter.instantiatePropertySource(source, encryptor));
+        return new PropertySourcesPropertyResolver(propertySources);
+    }
+
+    private List<Integer> threadCounts() {
+        List<Integer> counts = new ArrayList<Integer>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(maxThreads);
+        return counts;
+    }
+
+    private boolean run(Target target, ThreadKind kind, int threads) throws Exception {
+        final PropertyResolver resolver = target.create();
+        // warm up the lookup path and the encryptor before measuring
+        read(resolver, -1);
+        ExecutorService executor = kind.newExecutor(threads);
+        List<Future<Result>> futures = new ArrayList<Future<Result>>(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            final long seed = 31L * i + threads;
+            futures.add(executor.submit(new Callable<Result>() {
+                @Override
+                public Result call() {
+                    return read(resolver, seed);
+                }
+            }));
+        }
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        long[] latencies = new long[threads * operations];
+        int mismatches = 0;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Result result = futures.get(i).get(Math.max(1, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                System.arraycopy(result.latencies, 0, latencies, i * operations, operations);
+                mismatches += result.mismatches;
+            }
+        } catch (TimeoutException e) {
+            report(target, kind, threads, "TIMEOUT after " + timeoutSeconds + "s" + deadlocks());
+            executor.shutdownNow();
+            return false;
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        Arrays.sort(latencies);
+        double throughput = latencies.length / (elapsed / 1e9);
+        String result = mismatches == 0 ? "OK" : "FAILED: " + mismatches + " values did not match";
+        System.out.println(String.format("%-40s %-9s %7d %14.0f %12.1f %12.1f %s", target.name, kind.name().toLowerCase(), threads,
+                throughput, percentile(latencies, 0.50) / 1e3, percentile(latencies, 0.99) / 1e3, result));
+        return mismatches == 0;
+    }
+
+    private Result read(PropertyResolver resolver, long seed) {
+        Random random = new Random(seed);
+        Result result = new Result(operations);
+        for (int i = 0; i < operations; i++) {
+            String key = keyNames[random.nextInt(keyNames.length)];
+            long start = System.nanoTime();
+            String value = resolver.getProperty(key);
+            result.latencies[i] = System.nanoTime() - start;
+            if (!expected.get(key).equals(value)) {
+                result.mismatches++;
+            }
+        }
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static String deadlocks() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        long[] ids = threadMXBean.findDeadlockedThreads();
+        if (ids == null) {
+            return ", no deadlocked threads found";
+        }
+        StringBuilder dump = new StringBuilder(", deadlocked threads:\n");
+        for (ThreadInfo info : threadMXBean.getThreadInfo(ids, true, true)) {
+            dump.append(info);
+        }
+        return dump.toString();
+    }
+
+    private static void report(Target target, ThreadKind kind, int threads, String result) {
+        System.out.println(String.format("%-40s %-9s %7d %14s %12s %12s %s", target.name, kind.name().toLowerCase(), threads, "-", "-", "-", result));
+    }
+
+    private abstract static class Target {
+        private final String name;
+
+        Target(String name) {
+            this.name = name;
+        }
+
+        abstract PropertyResolver create();
+    }
+
+    private static class Result {
+        private final long[] latencies;
+        private int mismatches;
+
+        Result(int operations) {
+            this.latencies = new long[operations];
+        }
+    }
+
+    enum ThreadKind {
+        PLATFORM,
+        VIRTUAL;
+
+        static List<ThreadKind> available() {
+            List<ThreadKind> kinds = new ArrayList<ThreadKind>();
+            kinds.add(PLATFORM);
+            if (virtualExecutorFactory() != null) {
+                kinds.add(VIRTUAL);
+            }
+            return kinds;
+        }
+
+        ExecutorService newExecutor(int threads) throws Exception {
+            if (this == PLATFORM) {
+                return Executors.newFixedThreadPool(threads);
+            }
+            return (ExecutorService) virtualExecutorFactory().invoke(null);
+        }
+
+        private static java.lang.reflect.Method virtualExecutorFactory() {
+            try {
+                return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+}
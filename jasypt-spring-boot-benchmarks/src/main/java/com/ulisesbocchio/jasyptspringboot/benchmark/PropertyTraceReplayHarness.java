@@ -0,0 +1,216 @@
+package com.ulisesbocchio.jasyptspringboot.benchmark;
+
+import com.ulisesbocchio.jasyptspringboot.EncryptablePropertySourceConverter;
+import com.ulisesbocchio.jasyptspringboot.InterceptionMode;
+import com.ulisesbocchio.jasyptspringboot.encryptor.LazyStringEncryptor;
+import com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessRecorder;
+import com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessRecorder.Access;
+import org.jasypt.encryption.StringEncryptor;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.PropertySourcesPropertyResolver;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Replays a property read trace recorded with {@code jasypt.encryptor.recorder.enabled=true} (see
+ * {@link PropertyAccessRecorder}) against each {@link InterceptionMode}, to measure how a candidate configuration
+ * performs on the reads of a real application before rolling it out.</p>
+ * <p>Traces hold no values, so one property source is rebuilt per recorded source name, in order of first read, with
+ * a value for every property read from it, derived from the property name and encrypted by the candidate encryptor
+ * when the recorded read was encrypted. Reads with no recorded source go to an extra source. Every recorded thread is replayed on its own thread,
+ * in recorded order, and every value read is checked. The trace is replayed once to warm up, then measured.</p>
+ * <p>The encryptor is a {@link LazyStringEncryptor}, so the candidate configuration is given as {@code jasypt.encryptor.*}
+ * system properties, e.g. {@code -Djasypt.encryptor.type=BUFFERED}. The password defaults to the benchmark
+ * password.</p>
+ * <p>Configured through system properties:</p>
+ * <ul>
+ * <li>{@code replay.trace}: trace file, required</li>
+ * <li>{@code replay.modes}: comma separated {@link InterceptionMode}s to replay against, default all</li>
+ * <li>{@code replay.timing}: whether to keep the recorded time between reads, rather than reading as fast as
+ * possible, default {@code false}</li>
+ * <li>{@code replay.iterations}: measured replays per mode, default {@code 3}</li>
+ * </ul>
+ *
+ * @author Ulises Bocchio
+ */
+public class PropertyTraceReplayHarness {
+
+    private static final String UNKNOWN_SOURCE = "replayUnknownSource";
+
+    private final String trace = System.getProperty("replay.trace");
+    private final String modes = System.getProperty("replay.modes");
+    private final boolean timing = Boolean.getBoolean("replay.timing");
+    private final int iterations = Integer.getInteger("replay.iterations", 3);
+
+    public static void main(String[] args) throws Exception {
+        boolean passed = new PropertyTraceReplayHarness().run();
+        System.exit(passed ? 0 : 1);
+    }
+
+    public boolean run() throws Exception {
+        if (trace == null) {
+            throw new IllegalArgumentException("Missing replay.trace system property");
+        }
+        List<Access> accesses = PropertyAccessRecorder.read(new File(trace));
+        Map<Long, List<Access>> threads = new LinkedHashMap<Long, List<Access>>();
+        for (Access access : accesses) {
+            List<Access> thread = threads.get(access.getThreadId());
+            if (thread == null) {
+                thread = new ArrayList<Access>();
+                threads.put(access.getThreadId(), thread);
+            }
+            thread.add(access);
+        }
+        System.out.println(String.format("Replaying %d reads from %d threads of %s", accesses.size(), threads.size(), trace));
+        System.out.println(String.format("%-10s %9s %12s %14s %12s %12s %s", "mode", "iteration", "elapsed (ms)", "reads/s", "p50 (us)", "p99 (us)", "result"));
+        boolean passed = true;
+        for (InterceptionMode mode : modes()) {
+            Replay replay = new Replay(mode, accesses);
+            replay.run(threads.values());
+            for (int i = 1; i <= iterations; i++) {
+                passed &= replay.run(threads.values()).report(mode, i);
+            }
+        }
+        return passed;
+    }
+
+    private List<InterceptionMode> modes() {
+        if (modes == null) {
+            return Arrays.asList(InterceptionMode.values());
+        }
+        List<InterceptionMode> selected = new ArrayList<InterceptionMode>();
+        for (String mode : modes.split(",")) {
+            selected.add(InterceptionMode.valueOf(mode.trim().toUpperCase()));
+        }
+        return selected;
+    }
+
+    private class Replay {
+
+        private final PropertyResolver resolver;
+        private final Map<String, String> expected = new LinkedHashMap<String, String>();
+        private long origin = Long.MAX_VALUE;
+
+        private Replay(InterceptionMode mode, List<Access> accesses) {
+            StandardEnvironment environment = new StandardEnvironment();
+            if (!environment.containsProperty("jasypt.encryptor.password")) {
+                Map<String, Object> config = new LinkedHashMap<String, Object>();
+                config.put("jasypt.encryptor.password", PropertyLookupStressHarness.PASSWORD);
+                environment.getPropertySources().addLast(new MapPropertySource("replayConfig", config));
+            }
+            StringEncryptor encryptor = new LazyStringEncryptor(environment);
+            Map<String, Map<String, Object>> sources = new LinkedHashMap<String, Map<String, Object>>();
+            for (Access access : accesses) {
+                // every thread waits relative to the first read of the trace, keeping their recorded interleaving
+                origin = Math.min(origin, access.getNanos());
+                String sourceName = access.getSource() != null ? access.getSource() : UNKNOWN_SOURCE;
+                Map<String, Object> source = sources.get(sourceName);
+                if (source == null) {
+                    source = new LinkedHashMap<String, Object>();
+                    sources.put(sourceName, source);
+                }
+                if (!source.containsKey(access.getProperty())) {
+                    String value = "value of " + access.getProperty();
+                    source.put(access.getProperty(), access.isEncrypted() ? "ENC(" + encryptor.encrypt(value) + ")" : value);
+                    expected.put(access.getProperty(), value);
+                }
+            }
+            MutablePropertySources propertySources = new MutablePropertySources();
+            for (Map.Entry<String, Map<String, Object>> source : sources.entrySet()) {
+                PropertySource<?> propertySource = new MapPropertySource(source.getKey(), source.getValue());
+                propertySources.addLast(mode == InterceptionMode.PROXY
+                        ? EncryptablePropertySourceConverter.proxyPropertySource(propertySource, encryptor)
+                        : EncryptablePropertySourceConverter.instantiatePropertySource(propertySource, encryptor));
+            }
+            this.resolver = new PropertySourcesPropertyResolver(propertySources);
+        }
+
+        private Result run(Iterable<List<Access>> threads) throws Exception {
+            List<List<Access>> replayed = new ArrayList<List<Access>>();
+            for (List<Access> thread : threads) {
+                replayed.add(thread);
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(replayed.size());
+            try {
+                final long start = System.nanoTime();
+                List<Future<Result>> futures = new ArrayList<Future<Result>>(replayed.size());
+                for (final List<Access> thread : replayed) {
+                    futures.add(executor.submit(new Callable<Result>() {
+                        @Override
+                        public Result call() throws InterruptedException {
+                            return read(thread, start);
+                        }
+                    }));
+                }
+                Result result = new Result();
+                for (Future<Result> future : futures) {
+                    result.add(future.get());
+                }
+                result.elapsed = System.nanoTime() - start;
+                return result;
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        private Result read(List<Access> accesses, long start) throws InterruptedException {
+            Result result = new Result();
+            result.latencies = new long[accesses.size()];
+            for (int i = 0; i < accesses.size(); i++) {
+                Access access = accesses.get(i);
+                if (timing) {
+                    long wait = start + access.getNanos() - origin - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                }
+                long readStart = System.nanoTime();
+                String value = resolver.getProperty(access.getProperty());
+                result.latencies[i] = System.nanoTime() - readStart;
+                if (!expected.get(access.getProperty()).equals(value)) {
+                    result.mismatches++;
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class Result {
+        private long[] latencies = new long[0];
+        private int mismatches;
+        private long elapsed;
+
+        private void add(Result other) {
+            long[] merged = Arrays.copyOf(latencies, latencies.length + other.latencies.length);
+            System.arraycopy(other.latencies, 0, merged, latencies.length, other.latencies.length);
+            latencies = merged;
+            mismatches += other.mismatches;
+        }
+
+        private boolean report(InterceptionMode mode, int iteration) {
+            Arrays.sort(latencies);
+            String result = mismatches == 0 ? "OK" : "FAILED: " + mismatches + " values did not match";
+            System.out.println(String.format("%-10s %9d %12.1f %14.0f %12.1f %12.1f %s", mode, iteration, elapsed / 1e6,
+                    latencies.length / (elapsed / 1e9), percentile(0.50) / 1e3, percentile(0.99) / 1e3, result));
+            return mismatches == 0;
+        }
+
+        private long percentile(double percentile) {
+            return latencies.length == 0 ? 0 : latencies[Math.min(latencies.length - 1, (int) Math.ceil(percentile * latencies.length) - 1)];
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.ulisesbocchio.jasyptspringboot.benchmark;
+
+import com.ulisesbocchio.jasyptspringboot.JasyptSpringBootAutoConfiguration;
+import com.ulisesbocchio.jasyptspringboot.annotation.EncryptablePropertySource;
+import com.ulisesbocchio.jasyptspringboot.environment.EncryptableEnvironment;
+import com.ulisesbocchio.jasyptspringboot.environment.EncryptableEnvironmentProxy;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.StandardAnnotationMetadata;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * <p>Measures how context startup time grows with the number of property sources and encrypted values.</p>
+ * <p>For every combination of {@code N} sources and {@code M} encrypted values a synthetic application is generated:
+ * {@code N} properties files holding the {@code M} encrypted values and {@code startup.plainPerSource} plain values
+ * each. The time from {@code SpringApplication.run} to a ready context is then measured for each {@link Setup}, with a
+ * bean that reads every generated key during startup, the way {@code @Value} injection would.</p>
+ * <p>Results are emitted as one JSON object per line, to standard output and to {@code startup.output} when set, so
+ * scaling curves can be tracked across versions. Configured through system properties:</p>
+ * <ul>
+ * <li>{@code startup.sources}: comma separated numbers of sources, default {@code 1,4,16,64}</li>
+ * <li>{@code startup.encrypted}: comma separated numbers of encrypted values, default {@code 10,100,500}</li>
+ * <li>{@code startup.plainPerSource}: plain values per source, default {@code 50}</li>
+ * <li>{@code startup.setups}: comma separated {@link Setup} names, default all</li>
+ * <li>{@code startup.warmups}: discarded runs per combination, default {@code 2}</li>
+ * <li>{@code startup.runs}: measured runs per combination, default {@code 5}</li>
+ * <li>{@code startup.version}: label of the measured version, default {@code dev}</li>
+ * <li>{@code startup.output}: file the JSON lines are appended to</li>
+ * </ul>
+ *
+ * @author Ulises Bocchio
+ */
+public class StartupBenchmark {
+
+    /**
+     * How encryptable properties are enabled in the generated application.
+     */
+    public enum Setup {
+        BASELINE,
+        STARTER_WRAPPER,
+        STARTER_PROXY,
+        ENCRYPTABLE_ENVIRONMENT,
+        ENCRYPTABLE_ENVIRONMENT_PROXY,
+        ENCRYPTABLE_PROPERTY_SOURCE
+    }
+
+    private final int[] sourceCounts = parse(System.getProperty("startup.sources", "1,4,16,64"));
+    private final int[] encryptedCounts = parse(System.getProperty("startup.encrypted", "10,100,500"));
+    private final int plainPerSource = Integer.getInteger("startup.plainPerSource", 50);
+    private final int warmups = Integer.getInteger("startup.warmups", 2);
+    private final int runs = Integer.getInteger("startup.runs", 5);
+    private final String version = System.getProperty("startup.version", "dev");
+    private final String output = System.getProperty("startup.output");
+    private final List<Setup> setups = new ArrayList<Setup>();
+    private final StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+
+    public StartupBenchmark() {
+        encryptor.setPassword(PropertyLookupStressHarness.PASSWORD);
+        String setupNames = System.getProperty("startup.setups");
+        if (setupNames == null) {
+            setups.addAll(Arrays.asList(Setup.values()));
+        } else {
+            for (String setupName : setupNames.split(",")) {
+                setups.add(Setup.valueOf(setupName.trim()));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new StartupBenchmark().run();
+    }
+
+    public void run() throws Exception {
+        for (int sources : sourceCounts) {
+            for (int encrypted : encryptedCounts) {
+                File directory = generate(sources, encrypted);
+                for (Setup setup : setups) {
+                    emit(measure(setup, directory, sources, encrypted));
+                }
+            }
+        }
+    }
+
+    private String measure(Setup setup, File directory, int sources, int encrypted) throws IOException {
+        for (int i = 0; i < warmups; i++) {
+            start(setup, directory, sources);
+        }
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = start(setup, directory, sources);
+        }
+        Arrays.sort(millis);
+        return String.format("{\"version\":\"%s\",\"java\":\"%s\",\"setup\":\"%s\",\"sources\":%d,\"encrypted\":%d,\"plain\":%d," +
+                        "\"runs\":%d,\"minMillis\":%d,\"medianMillis\":%d,\"maxMillis\":%d}",
+                version, System.getProperty("java.version"), setup, sources, encrypted, sources * plainPerSource, runs,
+                millis[0], millis[runs / 2], millis[runs - 1]);
+    }
+
+    private long start(Setup setup, File directory, int sources) throws IOException {
+        // loading the sources is part of the measurement, as it is for @EncryptablePropertySource
+        long start = System.nanoTime();
+        ConfigurableEnvironment environment = new StandardEnvironment();
+        if (setup == Setup.ENCRYPTABLE_ENVIRONMENT) {
+            environment = new EncryptableEnvironment(environment);
+        } else if (setup == Setup.ENCRYPTABLE_ENVIRONMENT_PROXY) {
+            environment = new EncryptableEnvironmentProxy(environment);
+        }
+        Map<String, Object> config = new LinkedHashMap<String, Object>();
+        config.put("jasypt.encryptor.password", PropertyLookupStressHarness.PASSWORD);
+        config.put("jasypt.encryptor.proxyPropertySources", String.valueOf(setup == Setup.STARTER_PROXY));
+        config.put("logging.level.root", "WARN");
+        config.put("startup.directory", directory.getAbsolutePath());
+        config.put("startup.sourceCount", String.valueOf(sources));
+        environment.getPropertySources().addFirst(new MapPropertySource("startupBenchmark", config));
+        if (setup != Setup.ENCRYPTABLE_PROPERTY_SOURCE) {
+            for (int i = 0; i < sources; i++) {
+                environment.getPropertySources().addLast(new ResourcePropertySource(new FileSystemResource(sourceFile(directory, i))));
+            }
+        }
+        Class<?> application = setup == Setup.STARTER_WRAPPER || setup == Setup.STARTER_PROXY ? StarterApplication.class
+                : setup == Setup.ENCRYPTABLE_PROPERTY_SOURCE ? AnnotatedApplication.class : PlainApplication.class;
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(application)
+                .environment(environment)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .web(false)
+                .run();
+        long elapsed = System.nanoTime() - start;
+        context.close();
+        return elapsed / 1000000;
+    }
+
+    private File generate(int sources, int encrypted) throws IOException {
+        File directory = File.createTempFile("jasypt-startup-", "");
+        if (!directory.delete() || !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        directory.deleteOnExit();
+        Properties[] properties = new Properties[sources];
+        for (int i = 0; i < sources; i++) {
+            properties[i] = new Properties();
+            for (int j = 0; j < plainPerSource; j++) {
+                properties[i].setProperty("startup.source" + i + ".plain" + j, "value-" + j);
+            }
+        }
+        for (int i = 0; i < encrypted; i++) {
+            properties[i % sources].setProperty("startup.source" + (i % sources) + ".secret" + i, "ENC(" + encryptor.encrypt("secret-" + i) + ")");
+        }
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < sources; i++) {
+            for (String key : properties[i].stringPropertyNames()) {
+                keys.append(keys.length() > 0 ? "," : "").append(key);
+            }
+            File file = sourceFile(directory, i);
+            file.deleteOnExit();
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), "ISO-8859-1");
+            try {
+                properties[i].store(writer, null);
+            } finally {
+                writer.close();
+            }
+        }
+        System.setProperty("startup.keys", keys.toString());
+        return directory;
+    }
+
+    private void emit(String line) throws IOException {
+        System.out.println(line);
+        if (output != null) {
+            PrintStream out = new PrintStream(new FileOutputStream(output, true), true, "UTF-8");
+            try {
+                out.println(line);
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private static File sourceFile(File directory, int index) {
+        return new File(directory, "source-" + index + ".properties");
+    }
+
+    private static int[] parse(String values) {
+        String[] parts = values.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+
+    /**
+     * Reads every generated key while the context starts, like {@code @Value} injection would.
+     */
+    static class PropertyReader implements InitializingBean {
+
+        @Autowired
+        private Environment environment;
+
+        @Override
+        public void afterPropertiesSet() {
+            for (String key : environment.getRequiredProperty("startup.keys").split(",")) {
+                if (environment.getProperty(key) == null) {
+                    throw new IllegalStateException("Property not found: " + key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Imports the starter's auto-configuration directly, as {@code @EnableAutoConfiguration} would.
+     */
+    @Configuration
+    @Import({JasyptSpringBootAutoConfiguration.class, PropertyReader.class})
+    static class StarterApplication {
+    }
+
+    @Configuration
+    @Import(PropertyReader.class)
+    static class PlainApplication {
+    }
+
+    @Configuration
+    @Import({PropertyReader.class, AnnotatedSourcesRegistrar.class})
+    static class AnnotatedApplication {
+    }
+
+    @EncryptablePropertySource(name = "startupBenchmarkSources", value = "file:${startup.directory}/source-0.properties")
+    static class AnnotatedSources {
+    }
+
+    /**
+     * Registers {@link AnnotatedSources} with the locations of exactly the {@code startup.sourceCount} generated files,
+     * through the annotation attributes of its bean definition, which are the ones read by
+     * {@link com.ulisesbocchio.jasyptspringboot.configuration.EncryptablePropertySourcesInitializer}.
+     */
+    static class AnnotatedSourcesRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+
+        private Environment environment;
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+            final String[] locations = new String[environment.getRequiredProperty("startup.sourceCount", Integer.class)];
+            for (int i = 0; i < locations.length; i++) {
+                locations[i] = "file:${startup.directory}/source-" + i + ".properties";
+            }
+            registry.registerBeanDefinition("startupBenchmarkSources", new AnnotatedGenericBeanDefinition(
+                    new StandardAnnotationMetadata(AnnotatedSources.class, true) {
+                        @Override
+                        public Map<String, Object> getAnnotationAttributes(String annotationName, boolean classValuesAsString) {
+                            Map<String, Object> attributes = super.getAnnotationAttributes(annotationName, classValuesAsString);
+                            if (attributes != null && EncryptablePropertySource.class.getName().equals(annotationName)) {
+                                attributes.put("value", locations);
+                            }
+                            return attributes;
+                        }
+                    }));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ulisesbocchio.jasyptspringboot;
+
+import com.ulisesbocchio.jasyptspringboot.cache.StringDeduplicator;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionPrefetcher;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionScheduler;
+import com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessRecorder;
+import org.springframework.core.env.Environment;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>JVM wide features an environment enables for the decryptions made by the library: string deduplication, sibling
+ * prefetching, decryption scheduling and property read recording, see {@link StringDeduplicator},
+ * {@link DecryptionPrefetcher}, {@link DecryptionScheduler} and {@link PropertyAccessRecorder}.</p>
+ * <p>Features are shared by every application context enabling them, with the settings of the first one, and stopped
+ * once the last one {@link #release() releases} them, so their threads and files do not outlive the contexts using
+ * them, and a context started after all others were closed applies its own settings. Deduplication stays enabled,
+ * since values already handed out may be canonical instances. They are retained by the post processors that make the
+ * property sources of a context encryptable, which see its application properties and are destroyed with it, rather
+ * than by the encryptable environments, which are created before those properties are loaded and never closed.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public final class DecryptionFeatures {
+
+    private final boolean prefetcher;
+    private final boolean scheduler;
+    private final boolean recorder;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private DecryptionFeatures(boolean prefetcher, boolean scheduler, boolean recorder) {
+        this.prefetcher = prefetcher;
+        this.scheduler = scheduler;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Enables the features configured in the environment, until {@link #release()} is called.
+     */
+    public static DecryptionFeatures retain(Environment environment) {
+        StringDeduplicator.configure(environment);
+        return new DecryptionFeatures(DecryptionPrefetcher.retain(environment), DecryptionScheduler.retain(environment),
+                PropertyAccessRecorder.retain(environment));
+    }
+
+    /**
+     * Releases the features enabled by {@link #retain(Environment)}, stopping those no other context uses. Only the
+     * first call has an effect.
+     */
+    public void release() {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        if (prefetcher) {
+            DecryptionPrefetcher.release();
+        }
+        if (scheduler) {
+            DecryptionScheduler.release();
+        }
+        if (recorder) {
+            PropertyAccessRecorder.release();
+        }
+    }
+}
@@ -1,21 +1,31 @@
 package com.ulisesbocchio.jasyptspringboot;
 
+import com.ulisesbocchio.jasyptspringboot.observation.FlightRecorderEvents;
 import org.jasypt.encryption.StringEncryptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.Ordered;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.MutablePropertySources;
 import org.springframework.core.env.PropertySource;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 import static com.ulisesbocchio.jasyptspringboot.EncryptablePropertySourceConverter.instantiatePropertySource;
+import static com.ulisesbocchio.jasyptspringboot.EncryptablePropertySourceConverter.isEncryptionRequired;
 import static com.ulisesbocchio.jasyptspringboot.EncryptablePropertySourceConverter.proxyPropertySource;
 import static com.ulisesbocchio.jasyptspringboot.configuration.StringEncryptorConfiguration.ENCRYPTOR_BEAN_PLACEHOLDER;
 
@@ -26,15 +36,29 @@ import static com.ulisesbocchio.jasyptspringboot.configuration.StringEncryptorCo
  * that can be configured through the same properties it wraps.</p>
  * <p>
  * <p>It takes the lowest precedence so it does not interfere with Spring Boot's own post processors</p>
+ * <p>Property sources added or replaced after startup, like those reloaded by a refresh scope or added by libraries
+ * once the context is refreshed, are converted on {@link ContextRefreshedEvent} and on Spring Cloud's
+ * {@code EnvironmentChangeEvent} and {@code RefreshScopeRefreshedEvent}, or when {@link #convertPropertySources()} is
+ * called. Sources that were already converted or skipped are recognized by identity, so only the new ones are
+ * converted or scanned.</p>
+ * <p>The {@link DecryptionFeatures} configured in the environment are enabled when the bean factory is post-processed
+ * and released when the context is closed.</p>
  *
  * @author Ulises Bocchio
  */
-public class EnableEncryptablePropertySourcesPostProcessor implements BeanFactoryPostProcessor, ApplicationListener<ApplicationEvent>, Ordered {
+public class EnableEncryptablePropertySourcesPostProcessor implements BeanFactoryPostProcessor, ApplicationListener<ApplicationEvent>, DisposableBean, Ordered {
 
     private static final Logger LOG = LoggerFactory.getLogger(EnableEncryptablePropertySourcesPostProcessor.class);
 
+    private static final Set<String> PROPERTY_SOURCE_CHANGE_EVENTS = new HashSet<String>(Arrays.asList(
+            "org.springframework.cloud.context.environment.EnvironmentChangeEvent",
+            "org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent"));
+
     private ConfigurableEnvironment environment;
     private InterceptionMode interceptionMode;
+    private ConfigurableListableBeanFactory beanFactory;
+    private Set<PropertySource<?>> skippedPropertySources = newIdentitySet();
+    private DecryptionFeatures features;
 
     public EnableEncryptablePropertySourcesPostProcessor() {
         this.interceptionMode = InterceptionMode.PROXY;
@@ -45,10 +69,15 @@ public class EnableEncryptablePropertySourcesPostProcessor implements BeanFactor
         this.interceptionMode = interceptionMode;
     }
 
-    private <T> PropertySource<T> makeEncryptable(PropertySource<T> propertySource, ConfigurableListableBeanFactory registry) {
-        StringEncryptor encryptor = registry.getBean(environment.resolveRequiredPlaceholders(ENCRYPTOR_BEAN_PLACEHOLDER), StringEncryptor.class);
+    private StringEncryptor getEncryptor() {
+        return beanFactory.getBean(environment.resolveRequiredPlaceholders(ENCRYPTOR_BEAN_PLACEHOLDER), StringEncryptor.class);
+    }
+
+    private <T> PropertySource<T> makeEncryptable(PropertySource<T> propertySource, StringEncryptor encryptor) {
+        Object event = FlightRecorderEvents.beginPropertySourceConversion();
         PropertySource<T> encryptablePropertySource = interceptionMode == InterceptionMode.PROXY
                 ? proxyPropertySource(propertySource, encryptor) : instantiatePropertySource(propertySource, encryptor);
+        FlightRecorderEvents.endPropertySourceConversion(event, propertySource.getName(), propertySource.getClass().getName(), interceptionMode.name());
         LOG.info("Converting PropertySource {} [{}] to {}", propertySource.getName(), propertySource.getClass().getName(),
                 AopUtils.isAopProxy(encryptablePropertySource) ? "AOP Proxy" : encryptablePropertySource.getClass().getSimpleName());
         return encryptablePropertySource;
@@ -57,13 +86,47 @@ public class EnableEncryptablePropertySourcesPostProcessor implements BeanFactor
     @Override
     public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
         LOG.info("Post-processing PropertySource instances");
+        this.beanFactory = beanFactory;
+        if (features == null) {
+            features = DecryptionFeatures.retain(environment);
+        }
+        convertPropertySources();
+    }
+
+    /**
+     * Converts the property sources added or replaced since the last pass. Sources already converted, or skipped
+     * because they hold no encrypted values, are left untouched.
+     *
+     * @return the number of new property sources found
+     */
+    public synchronized int convertPropertySources() {
         MutablePropertySources propSources = environment.getPropertySources();
+        Set<PropertySource<?>> skipped = newIdentitySet();
+        int changes = 0;
+        StringEncryptor encryptor = null;
         for (final PropertySource<?> propertySource : propSources) {
-            if (!(propertySource instanceof EncryptablePropertySource)) {
-                PropertySource<?> encryptablePropertySource = makeEncryptable(propertySource, beanFactory);
+            if (propertySource instanceof EncryptablePropertySource) {
+                continue;
+            }
+            if (skippedPropertySources.contains(propertySource)) {
+                skipped.add(propertySource);
+                continue;
+            }
+            changes++;
+            if (encryptor == null) {
+                encryptor = getEncryptor();
+            }
+            if (isEncryptionRequired(propertySource, environment, encryptor)) {
+                PropertySource<?> encryptablePropertySource = makeEncryptable(propertySource, encryptor);
                 propSources.replace(encryptablePropertySource.getName(), encryptablePropertySource);
+            } else {
+                LOG.info("Skipping PropertySource {} [{}], no encrypted values found", propertySource.getName(), propertySource.getClass().getName());
+                skipped.add(propertySource);
             }
         }
+        // only keeps the skipped sources still present, so removed ones can be collected
+        skippedPropertySources = skipped;
+        return changes;
     }
 
     @Override
@@ -71,8 +134,25 @@ public class EnableEncryptablePropertySourcesPostProcessor implements BeanFactor
         return Ordered.LOWEST_PRECEDENCE;
     }
 
+    @Override
+    public void destroy() {
+        if (features != null) {
+            features.release();
+        }
+    }
+
     @Override
     public void onApplicationEvent(ApplicationEvent event) {
         LOG.debug("Application Event Raised: {}", event.getClass().getSimpleName());
+        if (beanFactory != null && (event instanceof ContextRefreshedEvent || PROPERTY_SOURCE_CHANGE_EVENTS.contains(event.getClass().getName()))) {
+            int changes = convertPropertySources();
+            if (changes > 0) {
+                LOG.info("Processed {} PropertySource instances added on {}", changes, event.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private static Set<PropertySource<?>> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<PropertySource<?>, Boolean>());
     }
 }
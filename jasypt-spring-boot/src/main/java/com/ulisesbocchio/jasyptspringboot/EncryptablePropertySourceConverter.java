@@ -1,15 +1,24 @@
 package com.ulisesbocchio.jasyptspringboot;
 
 import com.ulisesbocchio.jasyptspringboot.aop.EncryptablePropertySourceMethodInterceptor;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionPrefetcher;
+import com.ulisesbocchio.jasyptspringboot.source.DirectoryPropertySource;
+import com.ulisesbocchio.jasyptspringboot.wrapper.EncryptableDirectoryPropertySourceWrapper;
 import com.ulisesbocchio.jasyptspringboot.wrapper.EncryptableEnumerablePropertySourceWrapper;
 import com.ulisesbocchio.jasyptspringboot.wrapper.EncryptableMapPropertySourceWrapper;
 import com.ulisesbocchio.jasyptspringboot.wrapper.EncryptablePropertySourceWrapper;
+import com.ulisesbocchio.jasyptspringboot.wrapper.EncryptableSystemEnvironmentPropertySourceWrapper;
 import org.jasypt.encryption.StringEncryptor;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.core.env.CommandLinePropertySource;
+import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+
+import java.util.Map;
 
 /**
  * @author Ulises Bocchio
@@ -22,19 +31,28 @@ public class EncryptablePropertySourceConverter {
         if (CommandLinePropertySource.class.isAssignableFrom(propertySource.getClass())) {
             return instantiatePropertySource(propertySource, encryptor);
         }
+        //Directory sources are wrapped so that each file is decrypted once per version rather than on every read.
+        if (propertySource instanceof DirectoryPropertySource) {
+            return instantiatePropertySource(propertySource, encryptor);
+        }
         ProxyFactory proxyFactory = new ProxyFactory();
         proxyFactory.setTargetClass(propertySource.getClass());
         proxyFactory.setProxyTargetClass(true);
         proxyFactory.addInterface(EncryptablePropertySource.class);
         proxyFactory.setTarget(propertySource);
-        proxyFactory.addAdvice(new EncryptablePropertySourceMethodInterceptor<StringEncryptor>(encryptor));
+        proxyFactory.addAdvice(new EncryptablePropertySourceMethodInterceptor<StringEncryptor>(encryptor,
+                DecryptionPrefetcher.forSource(propertySource, encryptor)));
         return (PropertySource<T>) proxyFactory.getProxy();
     }
 
     @SuppressWarnings("unchecked")
     public static <T> PropertySource<T> instantiatePropertySource(PropertySource<T> propertySource, StringEncryptor encryptor) {
         PropertySource<T> encryptablePropertySource;
-        if (propertySource instanceof MapPropertySource) {
+        if (propertySource instanceof SystemEnvironmentPropertySource) {
+            encryptablePropertySource = (PropertySource<T>) new EncryptableSystemEnvironmentPropertySourceWrapper((SystemEnvironmentPropertySource) propertySource, encryptor);
+        } else if (propertySource instanceof DirectoryPropertySource) {
+            encryptablePropertySource = (PropertySource<T>) new EncryptableDirectoryPropertySourceWrapper((DirectoryPropertySource) propertySource, encryptor);
+        } else if (propertySource instanceof MapPropertySource) {
             encryptablePropertySource = (PropertySource<T>) new EncryptableMapPropertySourceWrapper((MapPropertySource) propertySource, encryptor);
         } else if (propertySource.getClass().getName().equals("org.springframework.boot.context.config.ConfigFileApplicationListener$ConfigurationPropertySources")) {
             //Some Spring Boot code actually casts property sources to this specific type so must be proxied.
@@ -46,4 +64,64 @@ public class EncryptablePropertySourceConverter {
         }
         return encryptablePropertySource;
     }
+
+    /**
+     * Whether the property source must be made encryptable. All sources are, unless
+     * {@code jasypt.encryptor.selectivePropertySources} is {@code true}, in which case enumerable sources are scanned
+     * once and only those holding values the encryptor decrypts are selected. Sources that cannot be enumerated, as well as
+     * {@link DirectoryPropertySource}s, which would read every file to be scanned, are selected unless
+     * {@code jasypt.encryptor.wrapNonEnumerablePropertySources} is {@code false}.
+     * Encrypted values added to a skipped source after the scan are not decrypted.
+     */
+    public static boolean isEncryptionRequired(PropertySource<?> propertySource, Environment environment, StringEncryptor encryptor) {
+        if (!environment.getProperty("jasypt.encryptor.selectivePropertySources", Boolean.TYPE, false)) {
+            return true;
+        }
+        Boolean encrypted = containsEncryptedValues(propertySource, encryptor);
+        if (encrypted == null) {
+            return environment.getProperty("jasypt.encryptor.wrapNonEnumerablePropertySources", Boolean.TYPE, true);
+        }
+        return encrypted;
+    }
+
+    /**
+     * @return whether any value is encrypted, or {@code null} when the source cannot be enumerated cheaply
+     */
+    private static Boolean containsEncryptedValues(PropertySource<?> propertySource, StringEncryptor encryptor) {
+        if (propertySource instanceof CompositePropertySource) {
+            Boolean encrypted = Boolean.FALSE;
+            for (PropertySource<?> nested : ((CompositePropertySource) propertySource).getPropertySources()) {
+                Boolean nestedEncrypted = containsEncryptedValues(nested, encryptor);
+                if (Boolean.TRUE.equals(nestedEncrypted)) {
+                    return Boolean.TRUE;
+                } else if (nestedEncrypted == null) {
+                    encrypted = null;
+                }
+            }
+            return encrypted;
+        }
+        if (propertySource.getSource() instanceof Map) {
+            // Read the raw values directly, property sources like SystemEnvironmentPropertySource resolve names on lookup
+            for (Object value : ((Map<?, ?>) propertySource.getSource()).values()) {
+                if (value instanceof String && Helper.isEncryptedValue((String) value, encryptor)) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        }
+        if (propertySource instanceof DirectoryPropertySource) {
+            // files are only read once their property is requested
+            return null;
+        }
+        if (propertySource instanceof EnumerablePropertySource) {
+            for (String name : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+                Object value = propertySource.getProperty(name);
+                if (value instanceof String && Helper.isEncryptedValue((String) value, encryptor)) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        }
+        return null;
+    }
 }
@@ -1,6 +1,13 @@
 package com.ulisesbocchio.jasyptspringboot;
 
+import com.ulisesbocchio.jasyptspringboot.cache.StringDeduplicator;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionPrefetcher;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionScheduler;
+import com.ulisesbocchio.jasyptspringboot.encryptor.LazyStringEncryptor;
+import com.ulisesbocchio.jasyptspringboot.encryptor.RoutingStringEncryptor;
 import com.ulisesbocchio.jasyptspringboot.exception.DecryptionException;
+import com.ulisesbocchio.jasyptspringboot.observation.FlightRecorderEvents;
+import com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessListeners;
 import org.jasypt.encryption.StringEncryptor;
 import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
 import org.jasypt.properties.PropertyValueEncryptionUtils;
@@ -13,22 +20,95 @@ public class Helper {
 
     private static final Logger LOG = LoggerFactory.getLogger(Helper.class);
 
+    private static final String ROUTED_VALUE_PREFIX = "ENC[";
+    private static final String ROUTED_VALUE_SEPARATOR = "](";
+    private static final String ROUTED_VALUE_SUFFIX = ")";
+
     public static Object getProperty(StringEncryptor encryptor, PropertySource source, String name) {
+        return getProperty(encryptor, null, source, name);
+    }
+
+    /**
+     * Reads the property from the source, decrypting it through the prefetcher, if not {@code null}.
+     */
+    public static Object getProperty(StringEncryptor encryptor, DecryptionPrefetcher prefetcher, PropertySource source, String name) {
         Object value = source.getProperty(name);
+        boolean encrypted = false;
         if(value instanceof String) {
             String stringValue = String.valueOf(value);
-            if(PropertyValueEncryptionUtils.isEncryptedValue(stringValue)) {
-                try {
-                    value = PropertyValueEncryptionUtils.decrypt(stringValue, encryptor);
-                } catch (EncryptionOperationNotPossibleException e) {
-                    throw new DecryptionException("Decryption of Properties failed,  make sure encryption/decryption " +
-                            "passwords match", e);
-                }
+            if(isEncryptedValue(stringValue, encryptor)) {
+                encrypted = true;
+                value = prefetcher != null ? prefetcher.decrypt(name, stringValue) : decrypt(encryptor, stringValue, source.getName(), name);
             }
         }
+        if (value != null && !PropertyAccessListeners.isEmpty()) {
+            PropertyAccessListeners.propertyRead(source.getName(), name, encrypted);
+        }
         return value;
     }
 
+    /**
+     * Whether the value follows the Jasypt convention {@code ENC(...)}, or the named encryptor convention
+     * {@code ENC[name](...)} when the encryptor is a {@link RoutingStringEncryptor}. Other encryptors leave values in
+     * the named form as they are, since they could not decrypt them.
+     */
+    public static boolean isEncryptedValue(String value, StringEncryptor encryptor) {
+        return PropertyValueEncryptionUtils.isEncryptedValue(value)
+                || (encryptor instanceof RoutingStringEncryptor && isRoutedValue(value));
+    }
+
+    /**
+     * Decrypts a value detected by {@link #isEncryptedValue(String, StringEncryptor)}. Values in the form
+     * {@code ENC[name](...)} are decrypted by the encryptor registered with that name in a
+     * {@link RoutingStringEncryptor}.
+     */
+    public static String decrypt(StringEncryptor encryptor, String value) {
+        try {
+            if (encryptor instanceof RoutingStringEncryptor && isRoutedValue(value)) {
+                String trimmedValue = value.trim();
+                int separator = trimmedValue.indexOf(ROUTED_VALUE_SEPARATOR);
+                String encryptorName = trimmedValue.substring(ROUTED_VALUE_PREFIX.length(), separator);
+                String encryptedMessage = trimmedValue.substring(separator + ROUTED_VALUE_SEPARATOR.length(), trimmedValue.length() - ROUTED_VALUE_SUFFIX.length());
+                return ((RoutingStringEncryptor) encryptor).decrypt(encryptorName, encryptedMessage.trim());
+            }
+            return PropertyValueEncryptionUtils.decrypt(value, encryptor);
+        } catch (EncryptionOperationNotPossibleException e) {
+            throw new DecryptionException("Decryption of Properties failed,  make sure encryption/decryption " +
+                    "passwords match", e);
+        }
+    }
+
+    /**
+     * Same as {@link #decrypt(StringEncryptor, String)}, recording a {@link FlightRecorderEvents JFR event} that
+     * identifies the property being decrypted. The result is canonicalized by {@link StringDeduplicator} when enabled.
+     * The decryption waits for its turn in the {@link DecryptionScheduler} when enabled.
+     */
+    public static String decrypt(StringEncryptor encryptor, String value, String sourceName, String propertyName) {
+        DecryptionScheduler.Permit permit = DecryptionScheduler.acquire();
+        Object event = FlightRecorderEvents.beginDecryption();
+        try {
+            return StringDeduplicator.deduplicate(decrypt(encryptor, value));
+        } finally {
+            permit.release();
+            if (event != null) {
+                String algorithm = encryptor instanceof LazyStringEncryptor ? ((LazyStringEncryptor) encryptor).getAlgorithm() : null;
+                FlightRecorderEvents.endDecryption(event, sourceName, propertyName, algorithm);
+            }
+        }
+    }
+
+    private static boolean isRoutedValue(String value) {
+        if (value == null) {
+            return false;
+        }
+        String trimmedValue = value.trim();
+        if (!trimmedValue.startsWith(ROUTED_VALUE_PREFIX) || !trimmedValue.endsWith(ROUTED_VALUE_SUFFIX)) {
+            return false;
+        }
+        int separator = trimmedValue.indexOf(ROUTED_VALUE_SEPARATOR);
+        return separator > ROUTED_VALUE_PREFIX.length();
+    }
+
     public static String getProperty(Environment environment, String key, String defaultValue) {
         if (!propertyExists(environment, key)) {
             LOG.info("Encryptor config not found for property {}, using default value: {}", key, defaultValue);
@@ -37,6 +37,9 @@ public @interface EncryptablePropertySource {
      * examples.
      * <p>Each location will be added to the enclosing {@code Environment} as its own
      * property source, and in the order declared.
+     * <p>A location may also be a directory of the file system, like Kubernetes secret mounts, holding one property
+     * per file, see {@link com.ulisesbocchio.jasyptspringboot.source.DirectoryPropertySource}. Files are only read and
+     * decrypted when their property is first requested, and again when they change.
      */
     String[] value();
 
@@ -48,4 +51,26 @@ public @interface EncryptablePropertySource {
      */
     boolean ignoreResourceNotFound() default false;
 
+    /**
+     * Indicate if the whole content of each {@link #value() property resource} is encrypted, as produced by
+     * {@link com.ulisesbocchio.jasyptspringboot.encryptor.EncryptedFileTool}. Each resource is then decrypted with a
+     * single call to the {@link org.jasypt.encryption.StringEncryptor}, and parsed in memory according to its file
+     * extension, ignoring a trailing {@code .enc}. For example, {@code "classpath:secrets.yml.enc"} is parsed as YAML.
+     * <p>Individual {@code ENC(...)} values inside the decrypted file are still decrypted. Directories are not decrypted
+     * as a whole, only the {@code ENC(...)} files in them.
+     * Default is {@code false}.
+     */
+    boolean encryptedFile() default false;
+
+    /**
+     * Indicate if the {@link #value() property resources} should be merged, when loaded, into a single immutable
+     * source backed by a hash map, instead of being kept as nested sources looked up one after the other. A property
+     * defined in several resources keeps the value of the first one declared, as without merging. Lookups then take a
+     * single hash probe, and the objects that loaded each resource can be garbage collected.
+     * <p>Resources that cannot be enumerated, and directories, whose files are read lazily, can't be merged, the source
+     * is then kept unmerged.
+     * Default is {@code false}.
+     */
+    boolean flatten() default false;
+
 }
@@ -2,6 +2,7 @@ package com.ulisesbocchio.jasyptspringboot.aop;
 
 import com.ulisesbocchio.jasyptspringboot.EncryptablePropertySource;
 import com.ulisesbocchio.jasyptspringboot.Helper;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionPrefetcher;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.jasypt.encryption.StringEncryptor;
@@ -15,16 +16,25 @@ import java.lang.reflect.Parameter;
 public class EncryptablePropertySourceMethodInterceptor<T> implements MethodInterceptor, EncryptablePropertySource<T> {
 
     private final StringEncryptor encryptor;
+    private final DecryptionPrefetcher prefetcher;
 
     public EncryptablePropertySourceMethodInterceptor(StringEncryptor encryptor) {
+        this(encryptor, null);
+    }
+
+    /**
+     * @param prefetcher prefetcher of the proxied property source, or {@code null}
+     */
+    public EncryptablePropertySourceMethodInterceptor(StringEncryptor encryptor, DecryptionPrefetcher prefetcher) {
         this.encryptor = encryptor;
+        this.prefetcher = prefetcher;
     }
 
     @Override
     public Object invoke(MethodInvocation invocation) throws Throwable {
         Object returnValue = invocation.proceed();
         if(isGetPropertyCall(invocation)) {
-            return Helper.getProperty(encryptor, getPropertySource(invocation), getNameArgument(invocation));
+            return Helper.getProperty(encryptor, prefetcher, getPropertySource(invocation), getNameArgument(invocation));
         }
         return returnValue;
     }
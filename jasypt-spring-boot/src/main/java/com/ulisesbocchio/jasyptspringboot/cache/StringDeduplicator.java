@@ -0,0 +1,155 @@
+package com.ulisesbocchio.jasyptspringboot.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Canonicalizes equal strings to a single instance, so the same decrypted secret or property key read from many
+ * property sources or profiles is retained only once by the beans and caches holding it.</p>
+ * <p>Canonical instances are weakly referenced: an entry is collected as soon as nothing else uses it, so the store
+ * never keeps configuration alive by itself. Entries are spread over independently locked stripes.</p>
+ * <p>A JVM wide instance is enabled with {@code jasypt.encryptor.deduplicate=true}, and is then applied to decrypted
+ * values and to the property names cached by the property source wrappers. Any other cache can use it through
+ * {@link #deduplicate(String)}.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public final class StringDeduplicator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StringDeduplicator.class);
+
+    private static final int STRIPES = 16;
+
+    private static volatile StringDeduplicator shared;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Map<String, WeakReference<String>>[] stripes = new Map[STRIPES];
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    public StringDeduplicator() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new WeakHashMap<String, WeakReference<String>>();
+        }
+    }
+
+    /**
+     * Enables the JVM wide instance when {@code jasypt.encryptor.deduplicate} is {@code true}. Once enabled it stays
+     * enabled, since values already handed out may be canonical instances.
+     */
+    public static void configure(Environment environment) {
+        if (shared == null && environment.getProperty("jasypt.encryptor.deduplicate", Boolean.TYPE, false)) {
+            enable();
+        }
+    }
+
+    public static synchronized StringDeduplicator enable() {
+        if (shared == null) {
+            LOG.info("Deduplicating decrypted values and property names");
+            shared = new StringDeduplicator();
+        }
+        return shared;
+    }
+
+    /**
+     * @return the JVM wide instance, or {@code null} when deduplication is not enabled
+     */
+    public static StringDeduplicator getShared() {
+        return shared;
+    }
+
+    /**
+     * Canonicalizes the value with the JVM wide instance, or returns it unchanged when deduplication is not enabled.
+     */
+    public static String deduplicate(String value) {
+        StringDeduplicator deduplicator = shared;
+        return deduplicator != null ? deduplicator.canonicalize(value) : value;
+    }
+
+    /**
+     * Returns a copy of the array with its values canonicalized with the JVM wide instance, or the array itself when
+     * deduplication is not enabled.
+     */
+    public static String[] deduplicate(String[] values) {
+        StringDeduplicator deduplicator = shared;
+        if (deduplicator == null) {
+            return values;
+        }
+        String[] canonical = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            canonical[i] = deduplicator.canonicalize(values[i]);
+        }
+        return canonical;
+    }
+
+    /**
+     * @return an instance equal to {@code value}, the same one for every equal value while it is in use
+     */
+    public String canonicalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        int hash = value.hashCode();
+        Map<String, WeakReference<String>> stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        String canonical;
+        synchronized (stripe) {
+            WeakReference<String> reference = stripe.get(value);
+            canonical = reference != null ? reference.get() : null;
+            if (canonical == null) {
+                stripe.put(value, new WeakReference<String>(value));
+                return value;
+            }
+        }
+        if (canonical != value) {
+            duplicates.incrementAndGet();
+            bytesSaved.addAndGet(estimateSize(value));
+        }
+        return canonical;
+    }
+
+    /**
+     * Number of distinct values currently in use.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, WeakReference<String>> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Number of duplicate instances replaced by a canonical one.
+     */
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    /**
+     * Upper bound estimate of the heap freed by the duplicates replaced so far, assuming a 64 bit JVM with compressed
+     * references and {@code char[]} backed strings. Duplicates that were short lived, or still referenced elsewhere,
+     * did not actually free retained memory.
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StringDeduplicator[values=%d, duplicates=%d, bytesSaved=%d]", size(), getDuplicates(), getBytesSaved());
+    }
+
+    private static long estimateSize(String value) {
+        // String object header, hash and array reference, plus the char array header and contents, 8 byte aligned
+        long arraySize = (16 + 2L * value.length() + 7) & ~7L;
+        return 24 + arraySize;
+    }
+}
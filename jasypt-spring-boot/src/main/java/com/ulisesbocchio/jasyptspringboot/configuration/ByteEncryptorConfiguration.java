@@ -0,0 +1,54 @@
+package com.ulisesbocchio.jasyptspringboot.configuration;
+
+import com.ulisesbocchio.jasyptspringboot.encryptor.ByteBufferEncryptor;
+import com.ulisesbocchio.jasyptspringboot.encryptor.LazyByteBufferEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ConfigurationCondition;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Registers a {@link ByteBufferEncryptor} configured from the same {@code jasypt.encryptor.*} properties as the
+ * default {@link org.jasypt.encryption.StringEncryptor}, unless a bean named after {@code jasypt.encryptor.byteBean}
+ * (default {@code jasyptByteEncryptor}) already exists. The placeholder bean name is resolved by the post processor
+ * registered by {@link StringEncryptorConfiguration}.
+ *
+ * @author Ulises Bocchio
+ */
+@Configuration
+public class ByteEncryptorConfiguration {
+
+    public static final String BYTE_ENCRYPTOR_BEAN_PLACEHOLDER = "${jasypt.encryptor.byteBean:jasyptByteEncryptor}";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ByteEncryptorConfiguration.class);
+
+    @Conditional(OnMissingByteEncryptorBean.class)
+    @Bean(name = BYTE_ENCRYPTOR_BEAN_PLACEHOLDER)
+    public ByteBufferEncryptor byteEncryptor(Environment environment) {
+        String encryptorBeanName = environment.resolveRequiredPlaceholders(BYTE_ENCRYPTOR_BEAN_PLACEHOLDER);
+        LOG.info("Byte Encryptor custom Bean not found with name '{}'. Initializing Byte Encryptor based on properties with name '{}'",
+                encryptorBeanName, encryptorBeanName);
+        return new LazyByteBufferEncryptor(environment);
+    }
+
+    /**
+     * Condition that checks whether the encryptor specified by placeholder: {@link #BYTE_ENCRYPTOR_BEAN_PLACEHOLDER} exists.
+     */
+    static class OnMissingByteEncryptorBean implements ConfigurationCondition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return !context.getBeanFactory().containsBean(context.getEnvironment().resolveRequiredPlaceholders(BYTE_ENCRYPTOR_BEAN_PLACEHOLDER));
+        }
+
+        @Override
+        public ConfigurationPhase getConfigurationPhase() {
+            return ConfigurationPhase.REGISTER_BEAN;
+        }
+    }
+}
@@ -53,7 +53,7 @@ import org.springframework.core.env.PropertySource;
  * @author Ulises Bocchio
  */
 @Configuration
-@Import(StringEncryptorConfiguration.class)
+@Import({StringEncryptorConfiguration.class, ByteEncryptorConfiguration.class, PropertyAccessProfilerConfiguration.class})
 public class EnableEncryptablePropertySourcesConfiguration {
 
     private static final Logger LOG = LoggerFactory.getLogger(EnableEncryptablePropertySourcesConfiguration.class);
@@ -1,12 +1,19 @@
 package com.ulisesbocchio.jasyptspringboot.configuration;
 
+import com.ulisesbocchio.jasyptspringboot.DecryptionFeatures;
 import com.ulisesbocchio.jasyptspringboot.annotation.EncryptablePropertySource;
 import com.ulisesbocchio.jasyptspringboot.annotation.EncryptablePropertySources;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionScheduler;
+import com.ulisesbocchio.jasyptspringboot.encryptor.EncryptedFileTool;
+import com.ulisesbocchio.jasyptspringboot.source.DirectoryPropertySource;
+import com.ulisesbocchio.jasyptspringboot.wrapper.EncryptableDirectoryPropertySourceWrapper;
 import com.ulisesbocchio.jasyptspringboot.wrapper.EncryptableEnumerablePropertySourceWrapper;
+import com.ulisesbocchio.jasyptspringboot.wrapper.EncryptableMapPropertySourceWrapper;
 import org.jasypt.encryption.StringEncryptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
@@ -20,18 +27,27 @@ import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.MutablePropertySources;
 import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.util.Assert;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.util.StringUtils;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -41,7 +57,7 @@ import static com.ulisesbocchio.jasyptspringboot.configuration.StringEncryptorCo
  * @author Ulises Bocchio
  */
 @Configuration
-@Import(StringEncryptorConfiguration.class)
+@Import({StringEncryptorConfiguration.class, ByteEncryptorConfiguration.class, PropertyAccessProfilerConfiguration.class})
 public class EncryptablePropertySourcesInitializer {
 
     private static final Logger LOG = LoggerFactory.getLogger(EncryptablePropertySourcesInitializer.class);
@@ -51,11 +67,14 @@ public class EncryptablePropertySourcesInitializer {
         return new EncryptablePropertySourceAnnotationBeanFactoryPostProcessor();
     }
 
-    private static class EncryptablePropertySourceAnnotationBeanFactoryPostProcessor implements BeanFactoryPostProcessor, Ordered {
+    private static class EncryptablePropertySourceAnnotationBeanFactoryPostProcessor implements BeanFactoryPostProcessor, DisposableBean, Ordered {
+
+        private DecryptionFeatures features;
 
         @Override
         public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
             ConfigurableEnvironment env = beanFactory.getBean(ConfigurableEnvironment.class);
+            features = DecryptionFeatures.retain(env);
             ResourceLoader ac = new DefaultResourceLoader();
             StringEncryptor encryptor = beanFactory.getBean(env.resolveRequiredPlaceholders(ENCRYPTOR_BEAN_PLACEHOLDER), StringEncryptor.class);
             MutablePropertySources propertySources = env.getPropertySources();
@@ -90,6 +109,7 @@ public class EncryptablePropertySourcesInitializer {
             String name = attributes.getString("name");
             String[] locations = attributes.getStringArray("value");
             boolean ignoreResourceNotFound = attributes.getBoolean("ignoreResourceNotFound");
+            boolean encryptedFile = attributes.getBoolean("encryptedFile");
             CompositePropertySource compositePropertySource = new CompositePropertySource(generateName(name));
             Assert.isTrue(locations.length > 0, "At least one @PropertySource(value) location is required");
             for (String location : locations) {
@@ -98,15 +118,77 @@ public class EncryptablePropertySourcesInitializer {
                 if (!resource.exists() && !ignoreResourceNotFound) {
                     throw new IllegalStateException("Resource not found: " + location);
                 }
+                File directory = getDirectory(resource);
+                if (directory != null) {
+                    compositePropertySource.addPropertySource(new EncryptableDirectoryPropertySourceWrapper(
+                            new DirectoryPropertySource(resolvedLocation, directory), encryptor));
+                    continue;
+                }
+                if (encryptedFile && resource.exists()) {
+                    resource = decryptResource(resource, encryptor);
+                }
                 PropertySourcesLoader loader = new PropertySourcesLoader();
                 PropertySource propertySource = loader.load(resource, resolvedLocation, null);
                 if (propertySource != null) {
                     compositePropertySource.addPropertySource(propertySource);
                 }
             }
+            if (attributes.getBoolean("flatten")) {
+                MapPropertySource flattenedPropertySource = flatten(compositePropertySource);
+                if (flattenedPropertySource != null) {
+                    return new EncryptableMapPropertySourceWrapper(flattenedPropertySource, encryptor);
+                }
+                LOG.warn("Encryptable Property Source '{}' holds directories or non enumerable sources and can't be flattened", compositePropertySource.getName());
+            }
             return new EncryptableEnumerablePropertySourceWrapper<Object>(compositePropertySource, encryptor);
         }
 
+        /**
+         * @return the directory the resource is, or {@code null} if it is not a directory of the file system
+         */
+        private static File getDirectory(Resource resource) {
+            try {
+                File file = resource.getFile();
+                return file.isDirectory() ? file : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Merges the nested sources into an immutable map, keeping the value of the first source defining each property.
+         *
+         * @return the merged source, or {@code null} if a nested source is not enumerable or is a directory, which would
+         * have all its files read
+         */
+        private static MapPropertySource flatten(CompositePropertySource compositePropertySource) {
+            Map<String, Object> properties = new LinkedHashMap<String, Object>();
+            for (PropertySource<?> propertySource : compositePropertySource.getPropertySources()) {
+                if (!(propertySource instanceof EnumerablePropertySource) || propertySource instanceof EncryptableDirectoryPropertySourceWrapper) {
+                    return null;
+                }
+                for (String propertyName : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+                    if (!properties.containsKey(propertyName)) {
+                        properties.put(propertyName, propertySource.getProperty(propertyName));
+                    }
+                }
+            }
+            return new MapPropertySource(compositePropertySource.getName(), Collections.unmodifiableMap(properties));
+        }
+
+        private static Resource decryptResource(Resource resource, StringEncryptor encryptor) throws Exception {
+            String encryptedContent = FileCopyUtils.copyToString(new InputStreamReader(resource.getInputStream(), "US-ASCII"));
+            byte[] content;
+            DecryptionScheduler.Permit permit = DecryptionScheduler.acquire();
+            try {
+                content = EncryptedFileTool.decrypt(encryptor, encryptedContent);
+            } finally {
+                permit.release();
+            }
+            LOG.info("Decrypted encrypted file {}", resource.getDescription());
+            return new DecryptedResource(content, resource);
+        }
+
         private static String generateName(String name) {
             return !StringUtils.isEmpty(name) ? name : "EncryptedPropertySource#" + System.currentTimeMillis();
         }
@@ -135,5 +217,41 @@ public class EncryptablePropertySourcesInitializer {
         public int getOrder() {
             return Ordered.LOWEST_PRECEDENCE;
         }
+
+        @Override
+        public void destroy() {
+            if (features != null) {
+                features.release();
+            }
+        }
+    }
+
+    /**
+     * In memory decrypted content of an encrypted file, named after it without the {@code .enc} extension so that the
+     * matching {@link org.springframework.boot.env.PropertySourceLoader} is selected.
+     */
+    private static class DecryptedResource extends ByteArrayResource {
+        private final Resource encryptedResource;
+
+        private DecryptedResource(byte[] content, Resource encryptedResource) {
+            super(content, "Decrypted " + encryptedResource.getDescription());
+            this.encryptedResource = encryptedResource;
+        }
+
+        @Override
+        public String getFilename() {
+            return EncryptedFileTool.decryptedFilename(encryptedResource.getFilename());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this || (obj instanceof DecryptedResource && super.equals(obj)
+                    && encryptedResource.equals(((DecryptedResource) obj).encryptedResource));
+        }
+
+        @Override
+        public int hashCode() {
+            return encryptedResource.hashCode();
+        }
     }
 }
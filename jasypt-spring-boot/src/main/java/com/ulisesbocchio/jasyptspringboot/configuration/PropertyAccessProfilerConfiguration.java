@@ -0,0 +1,41 @@
+package com.ulisesbocchio.jasyptspringboot.configuration;
+
+import com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessProfiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * <p>Configuration class that registers a {@link PropertyAccessProfiler} bean when
+ * {@code jasypt.encryptor.profiler.enabled} is {@code true}. The profiler starts counting property reads as soon as it
+ * is created and stops when the application context is closed. Inject it to query the most read keys.</p>
+ *
+ * @author Ulises Bocchio
+ */
+@Configuration
+public class PropertyAccessProfilerConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PropertyAccessProfilerConfiguration.class);
+
+    @Conditional(OnProfilerEnabled.class)
+    @Bean(destroyMethod = "stop")
+    public static PropertyAccessProfiler propertyAccessProfiler(Environment environment) {
+        int capacity = environment.getProperty("jasypt.encryptor.profiler.capacity", Integer.class, 256);
+        LOG.info("Profiling property reads, tracking up to {} keys", capacity);
+        return new PropertyAccessProfiler(capacity).start();
+    }
+
+    private static class OnProfilerEnabled implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return context.getEnvironment().getProperty("jasypt.encryptor.profiler.enabled", Boolean.TYPE, false);
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.ulisesbocchio.jasyptspringboot.configuration;
 
+import com.ulisesbocchio.jasyptspringboot.encryptor.AsyncStringEncryptor;
+import com.ulisesbocchio.jasyptspringboot.encryptor.EncryptorWarmUp;
 import com.ulisesbocchio.jasyptspringboot.encryptor.LazyStringEncryptor;
+import com.ulisesbocchio.jasyptspringboot.encryptor.TenantStringEncryptorResolver;
 import org.jasypt.encryption.StringEncryptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
@@ -27,7 +31,7 @@ public class StringEncryptorConfiguration {
 
     private static final Logger LOG = LoggerFactory.getLogger(StringEncryptorConfiguration.class);
 
-    @Conditional(OnMissingEncryptorBean.class)
+    @Conditional(OnMissingAnyEncryptorBean.class)
     @Bean
     public static BeanNamePlaceholderRegistryPostProcessor beanNamePlaceholderRegistryPostProcessor(Environment environment) {
         return new BeanNamePlaceholderRegistryPostProcessor(environment);
@@ -42,6 +46,32 @@ public class StringEncryptorConfiguration {
         return new LazyStringEncryptor(environment);
     }
 
+    @Bean
+    public TenantStringEncryptorResolver tenantStringEncryptorResolver(Environment environment) {
+        return new TenantStringEncryptorResolver(environment,
+                environment.getProperty("jasypt.encryptor.tenantCacheSize", Integer.class, 1000));
+    }
+
+    @Conditional(OnAsyncEnabled.class)
+    @Bean
+    public AsyncStringEncryptor asyncStringEncryptor(BeanFactory beanFactory, Environment environment) {
+        StringEncryptor encryptor = beanFactory.getBean(environment.resolveRequiredPlaceholders(ENCRYPTOR_BEAN_PLACEHOLDER), StringEncryptor.class);
+        return new AsyncStringEncryptor(encryptor,
+                environment.getProperty("jasypt.encryptor.async.threads", Integer.class, Runtime.getRuntime().availableProcessors()),
+                environment.getProperty("jasypt.encryptor.async.queueCapacity", Integer.class, 1000),
+                environment.getProperty("jasypt.encryptor.async.cacheSize", Integer.class, 1000));
+    }
+
+    @Conditional(OnWarmUpEnabled.class)
+    @Bean
+    public EncryptorWarmUp encryptorWarmUp(BeanFactory beanFactory, Environment environment) {
+        StringEncryptor encryptor = beanFactory.getBean(environment.resolveRequiredPlaceholders(ENCRYPTOR_BEAN_PLACEHOLDER), StringEncryptor.class);
+        int poolSize = environment.getProperty("jasypt.encryptor.poolSize", Integer.class, 1);
+        return new EncryptorWarmUp(encryptor,
+                environment.getProperty("jasypt.encryptor.warmup.threads", Integer.class, poolSize),
+                environment.getProperty("jasypt.encryptor.warmup.iterations", Integer.class, 10));
+    }
+
     /**
      * Condition that checks whether the StringEncryptor specified by placeholder: {@link #ENCRYPTOR_BEAN_PLACEHOLDER} exists.
      * ConditionalOnMissingBean does not support placeholder resolution.
@@ -59,6 +89,49 @@ public class StringEncryptorConfiguration {
         }
     }
 
+    /**
+     * Condition that checks whether either the StringEncryptor or the
+     * {@link ByteEncryptorConfiguration#BYTE_ENCRYPTOR_BEAN_PLACEHOLDER ByteBufferEncryptor} is missing, so that the
+     * default bean registered in its place gets its placeholder name resolved.
+     */
+    private static class OnMissingAnyEncryptorBean implements ConfigurationCondition {
+
+        private final ConfigurationCondition onMissingEncryptorBean = new OnMissingEncryptorBean();
+        private final ConfigurationCondition onMissingByteEncryptorBean = new ByteEncryptorConfiguration.OnMissingByteEncryptorBean();
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return onMissingEncryptorBean.matches(context, metadata) || onMissingByteEncryptorBean.matches(context, metadata);
+        }
+
+        @Override
+        public ConfigurationPhase getConfigurationPhase() {
+            return ConfigurationPhase.REGISTER_BEAN;
+        }
+    }
+
+    /**
+     * Condition that checks whether the encryptor warm-up is enabled through {@code jasypt.encryptor.warmup.enabled}.
+     */
+    private static class OnWarmUpEnabled implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return context.getEnvironment().getProperty("jasypt.encryptor.warmup.enabled", Boolean.TYPE, false);
+        }
+    }
+
+    /**
+     * Condition that checks whether the non blocking encryptor facade is enabled through {@code jasypt.encryptor.async.enabled}.
+     */
+    private static class OnAsyncEnabled implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return context.getEnvironment().getProperty("jasypt.encryptor.async.enabled", Boolean.TYPE, false);
+        }
+    }
+
     /**
      * Bean Definition Registry Post Processor that looks for placeholders in bean names and resolves them, re-defining those beans
      * with the new names.
@@ -0,0 +1,162 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import com.ulisesbocchio.jasyptspringboot.cache.StringDeduplicator;
+import org.jasypt.encryption.StringEncryptor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.ListenableFutureTask;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Non blocking facade over a {@link StringEncryptor}, for callers that must not block, like the event loop threads
+ * of reactive applications. Operations run on a dedicated bounded pool and complete a {@link ListenableFuture}, which
+ * reactive code can turn into a {@code Mono}:</p>
+ * <pre>
+ *   Mono.&lt;String&gt;create(sink -&gt; asyncEncryptor.decrypt(secret).addCallback(sink::success, sink::error))
+ * </pre>
+ * <p>Decrypted values are kept in a bounded LRU cache, and a decryption whose result is cached returns an already
+ * completed future without touching the pool. Concurrent decryptions of the same message share one operation. When
+ * all threads are busy and the queue is full the returned future fails right away with a
+ * {@link RejectedExecutionException}, so callers get backpressure instead of an unbounded backlog or a blocked
+ * thread.</p>
+ * <p>Decryptions go through the {@link DecryptionScheduler} with background priority, like prefetching, so they never
+ * delay decryptions of properties being read, and their results are canonicalized by {@link StringDeduplicator} when
+ * enabled.</p>
+ * <p>Registered when {@code jasypt.encryptor.async.enabled} is {@code true}, over the encryptor bean named by
+ * {@code jasypt.encryptor.bean}.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class AsyncStringEncryptor implements DisposableBean {
+
+    private final StringEncryptor encryptor;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, ListenableFuture<String>> decrypting = new ConcurrentHashMap<String, ListenableFuture<String>>();
+    private final Map<String, String> decrypted;
+
+    /**
+     * @param threads       maximum number of threads running operations
+     * @param queueCapacity maximum number of operations waiting for a thread
+     * @param cacheSize     maximum number of decrypted values cached, {@code 0} disables the cache
+     */
+    public AsyncStringEncryptor(StringEncryptor encryptor, int threads, int queueCapacity, final int cacheSize) {
+        Assert.notNull(encryptor, "StringEncryptor cannot be null");
+        Assert.isTrue(threads > 0, "Threads must be positive");
+        Assert.isTrue(queueCapacity > 0, "Queue capacity must be positive");
+        this.encryptor = encryptor;
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), new RemoteStringEncryptor.DaemonThreadFactory("jasypt-async-"));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.decrypted = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public ListenableFuture<String> decrypt(final String encryptedMessage) {
+        String message = getDecrypted(encryptedMessage);
+        if (message != null) {
+            return completed(message);
+        }
+        ListenableFuture<String> pending = decrypting.get(encryptedMessage);
+        if (pending != null) {
+            return pending;
+        }
+        final ListenableFutureTask<String> task = new ListenableFutureTask<String>(new Callable<String>() {
+            @Override
+            public String call() {
+                DecryptionScheduler.Permit permit = DecryptionScheduler.acquire();
+                try {
+                    return StringDeduplicator.deduplicate(encryptor.decrypt(encryptedMessage));
+                } finally {
+                    permit.release();
+                }
+            }
+        });
+        pending = decrypting.putIfAbsent(encryptedMessage, task);
+        if (pending != null) {
+            return pending;
+        }
+        task.addCallback(new ListenableFutureCallback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                if (result != null) {
+                    synchronized (decrypted) {
+                        decrypted.put(encryptedMessage, result);
+                    }
+                }
+                decrypting.remove(encryptedMessage, task);
+            }
+
+            @Override
+            public void onFailure(Throwable ex) {
+                decrypting.remove(encryptedMessage, task);
+            }
+        });
+        return submit(DecryptionScheduler.inBackground(task), task);
+    }
+
+    public ListenableFuture<String> encrypt(final String message) {
+        ListenableFutureTask<String> task = new ListenableFutureTask<String>(new Callable<String>() {
+            @Override
+            public String call() {
+                return encryptor.encrypt(message);
+            }
+        });
+        return submit(task, task);
+    }
+
+    /**
+     * @return the cached decryption of the message, or {@code null} if it is not cached
+     */
+    public String getDecrypted(String encryptedMessage) {
+        synchronized (decrypted) {
+            return decrypted.get(encryptedMessage);
+        }
+    }
+
+    /**
+     * Number of operations waiting for a thread.
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private ListenableFuture<String> submit(Runnable command, ListenableFutureTask<String> task) {
+        try {
+            executor.execute(command);
+            return task;
+        } catch (RejectedExecutionException e) {
+            // completes the task's callbacks, like those cleaning up in flight decryptions
+            task.cancel(false);
+            SettableListenableFuture<String> rejected = new SettableListenableFuture<String>();
+            rejected.setException(e);
+            return rejected;
+        }
+    }
+
+    private static ListenableFuture<String> completed(String value) {
+        SettableListenableFuture<String> future = new SettableListenableFuture<String>();
+        future.set(value);
+        return future;
+    }
+}
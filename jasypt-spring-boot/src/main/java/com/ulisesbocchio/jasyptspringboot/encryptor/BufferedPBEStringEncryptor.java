@@ -0,0 +1,267 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.commons.CommonUtils;
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.encryption.pbe.config.PBEConfig;
+import org.jasypt.encryption.pbe.config.StringPBEConfig;
+import org.jasypt.exceptions.EncryptionInitializationException;
+import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * <p>{@link StringEncryptor} reading and writing the same format as jasypt's
+ * {@link org.jasypt.encryption.pbe.StandardPBEStringEncryptor} with the same configuration, so existing encrypted
+ * values keep working and results of either can be decrypted by the other. Messages are UTF-8 encoded, and results
+ * base64 or hexadecimal encoded according to the config's string output type.</p>
+ * <p>Operations run on a {@link PBEByteBufferEncryptor}, which reads the password once and keeps a
+ * {@link javax.crypto.Cipher} per thread, a key still being derived from the password and the salt of every message.
+ * Every thread also keeps its own buffers, grown as needed, which the message is encoded, decoded and encrypted in
+ * without intermediate copies, so an operation mostly allocates its resulting {@code String}. The bytes of the
+ * message are zeroed once the operation completes, so buffers do not keep the last message of their thread.</p>
+ * <p>The configuration is read once on construction.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class BufferedPBEStringEncryptor implements StringEncryptor {
+
+    private static final Charset MESSAGE_CHARSET = Charset.forName("UTF-8");
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    private static final char[] BASE64_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final char[] HEXADECIMAL_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final byte[] BASE64_VALUES = new byte[128];
+    private static final char BASE64_PAD = '=';
+
+    static {
+        Arrays.fill(BASE64_VALUES, (byte) -1);
+        for (int i = 0; i < BASE64_DIGITS.length; i++) {
+            BASE64_VALUES[BASE64_DIGITS[i]] = (byte) i;
+        }
+    }
+
+    private final PBEByteBufferEncryptor encryptor;
+    private final boolean base64;
+    private final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>() {
+        @Override
+        protected Buffers initialValue() {
+            return new Buffers();
+        }
+    };
+
+    public BufferedPBEStringEncryptor(PBEConfig config) {
+        this.encryptor = new PBEByteBufferEncryptor(config);
+        String stringOutputType = config instanceof StringPBEConfig ? ((StringPBEConfig) config).getStringOutputType() : null;
+        if (stringOutputType != null) {
+            stringOutputType = CommonUtils.getStandardStringOutputType(stringOutputType);
+            if (stringOutputType == null) {
+                throw new EncryptionInitializationException("Unrecognized string output type: " + ((StringPBEConfig) config).getStringOutputType());
+            }
+        }
+        this.base64 = stringOutputType == null || CommonUtils.STRING_OUTPUT_TYPE_BASE64.equals(stringOutputType);
+    }
+
+    @Override
+    public String encrypt(String message) {
+        if (message == null) {
+            return null;
+        }
+        Buffers buffers = this.buffers.get();
+        try {
+            ByteBuffer messageBytes = buffers.encode(message);
+            ByteBuffer encrypted = buffers.output(encryptor.getEncryptedSize(messageBytes.remaining()));
+            int length = encryptor.encrypt(messageBytes, encrypted);
+            return base64 ? encodeBase64(encrypted.array(), length, buffers) : encodeHexadecimal(encrypted.array(), length, buffers);
+        } catch (EncryptionOperationNotPossibleException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EncryptionOperationNotPossibleException();
+        } finally {
+            buffers.wipeInput();
+        }
+    }
+
+    @Override
+    public String decrypt(String encryptedMessage) {
+        if (encryptedMessage == null) {
+            return null;
+        }
+        Buffers buffers = this.buffers.get();
+        int size = 0;
+        try {
+            ByteBuffer encrypted = base64 ? decodeBase64(encryptedMessage, buffers) : decodeHexadecimal(encryptedMessage, buffers);
+            size = encryptor.getMaxDecryptedSize(encrypted.remaining());
+            ByteBuffer decrypted = buffers.output(size);
+            int length = encryptor.decrypt(encrypted, decrypted);
+            return new String(decrypted.array(), 0, length, MESSAGE_CHARSET);
+        } catch (EncryptionOperationNotPossibleException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EncryptionOperationNotPossibleException();
+        } finally {
+            buffers.wipeOutput(size);
+        }
+    }
+
+    private static String encodeBase64(byte[] bytes, int length, Buffers buffers) {
+        char[] chars = buffers.chars((length + 2) / 3 * 4);
+        int c = 0;
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int group = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+            chars[c++] = BASE64_DIGITS[group >>> 18];
+            chars[c++] = BASE64_DIGITS[(group >>> 12) & 0x3F];
+            chars[c++] = BASE64_DIGITS[(group >>> 6) & 0x3F];
+            chars[c++] = BASE64_DIGITS[group & 0x3F];
+        }
+        if (i < length) {
+            int group = (bytes[i] & 0xFF) << 16 | (i + 1 < length ? (bytes[i + 1] & 0xFF) << 8 : 0);
+            chars[c++] = BASE64_DIGITS[group >>> 18];
+            chars[c++] = BASE64_DIGITS[(group >>> 12) & 0x3F];
+            chars[c++] = i + 1 < length ? BASE64_DIGITS[(group >>> 6) & 0x3F] : BASE64_PAD;
+            chars[c++] = BASE64_PAD;
+        }
+        return new String(chars, 0, c);
+    }
+
+    /**
+     * Decodes like jasypt's base64 codec: characters outside the base64 alphabet are ignored, and so is an incomplete
+     * trailing group.
+     */
+    private static ByteBuffer decodeBase64(String encoded, Buffers buffers) {
+        byte[] bytes = buffers.input(encoded.length() / 4 * 3);
+        int length = 0;
+        int group = 0;
+        int digits = 0;
+        int padding = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+            char c = encoded.charAt(i);
+            int value;
+            if (c == BASE64_PAD) {
+                value = 0;
+                padding++;
+            } else if (c < BASE64_VALUES.length && BASE64_VALUES[c] >= 0 && padding == 0) {
+                value = BASE64_VALUES[c];
+            } else {
+                continue;
+            }
+            group = group << 6 | value;
+            if (++digits == 4) {
+                bytes[length++] = (byte) (group >>> 16);
+                if (padding < 2) {
+                    bytes[length++] = (byte) (group >>> 8);
+                }
+                if (padding < 1) {
+                    bytes[length++] = (byte) group;
+                }
+                if (padding > 0) {
+                    break;
+                }
+                group = 0;
+                digits = 0;
+            }
+        }
+        return buffers.input(0, length);
+    }
+
+    private static String encodeHexadecimal(byte[] bytes, int length, Buffers buffers) {
+        char[] chars = buffers.chars(length * 2);
+        for (int i = 0; i < length; i++) {
+            chars[2 * i] = HEXADECIMAL_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEXADECIMAL_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars, 0, length * 2);
+    }
+
+    private static ByteBuffer decodeHexadecimal(String encoded, Buffers buffers) {
+        if (encoded.length() % 2 != 0) {
+            throw new EncryptionOperationNotPossibleException();
+        }
+        int length = encoded.length() / 2;
+        byte[] bytes = buffers.input(length);
+        for (int i = 0; i < length; i++) {
+            int high = Character.digit(encoded.charAt(2 * i), 16);
+            int low = Character.digit(encoded.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new EncryptionOperationNotPossibleException();
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return buffers.input(0, length);
+    }
+
+    /**
+     * Buffers of a single thread, grown as needed and never shrunk.
+     */
+    private static final class Buffers {
+
+        private final CharsetEncoder encoder = MESSAGE_CHARSET.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer input = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        private ByteBuffer output = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        private char[] chars = new char[INITIAL_BUFFER_SIZE];
+
+        private byte[] input(int size) {
+            if (input.capacity() < size) {
+                input = ByteBuffer.allocate(Math.max(size, input.capacity() * 2));
+            }
+            return input.array();
+        }
+
+        private ByteBuffer input(int position, int limit) {
+            input.clear();
+            input.position(position).limit(limit);
+            return input;
+        }
+
+        private ByteBuffer output(int size) {
+            if (output.capacity() < size) {
+                output = ByteBuffer.allocate(Math.max(size, output.capacity() * 2));
+            }
+            output.clear();
+            return output;
+        }
+
+        /**
+         * Zeroes the bytes a message was encoded in.
+         */
+        private void wipeInput() {
+            Arrays.fill(input.array(), 0, input.limit(), (byte) 0);
+        }
+
+        /**
+         * Zeroes the first bytes of the output buffer, which a message was decrypted in.
+         */
+        private void wipeOutput(int size) {
+            Arrays.fill(output.array(), 0, Math.min(size, output.capacity()), (byte) 0);
+        }
+
+        private char[] chars(int size) {
+            if (chars.length < size) {
+                chars = new char[Math.max(size, chars.length * 2)];
+            }
+            return chars;
+        }
+
+        private ByteBuffer encode(String message) throws CharacterCodingException {
+            input((int) Math.ceil(message.length() * (double) encoder.maxBytesPerChar()));
+            input.clear();
+            encoder.reset();
+            CharBuffer chars = CharBuffer.wrap(message);
+            CoderResult result = encoder.encode(chars, input, true);
+            if (!result.isUnderflow()) {
+                result.throwException();
+            }
+            encoder.flush(input);
+            input.flip();
+            return input;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.ByteEncryptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>{@link ByteEncryptor} that also works on {@link ByteBuffer}s, heap or direct, writing into buffers provided by
+ * the caller, so binary payloads are encrypted without base64 encoding and without allocating output arrays.</p>
+ * <p>The buffer operations consume the remaining bytes of the input buffer and write the result at the position of
+ * the output buffer, advancing both positions. When an operation fails both positions are left unchanged.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public interface ByteBufferEncryptor extends ByteEncryptor {
+
+    /**
+     * Encrypts the remaining bytes of {@code message} into {@code output}, which must have at least
+     * {@link #getEncryptedSize(int)} bytes remaining.
+     *
+     * @return the number of bytes written
+     */
+    int encrypt(ByteBuffer message, ByteBuffer output);
+
+    /**
+     * Decrypts the remaining bytes of {@code encryptedMessage} into {@code output}, which must have at least
+     * {@link #getMaxDecryptedSize(int)} bytes remaining.
+     *
+     * @return the number of bytes written
+     */
+    int decrypt(ByteBuffer encryptedMessage, ByteBuffer output);
+
+    /**
+     * @return the exact size of the encryption result of a message of {@code messageLength} bytes
+     */
+    int getEncryptedSize(int messageLength);
+
+    /**
+     * @return an upper bound for the size of the decryption result of {@code encryptedLength} bytes
+     */
+    int getMaxDecryptedSize(int encryptedLength);
+}
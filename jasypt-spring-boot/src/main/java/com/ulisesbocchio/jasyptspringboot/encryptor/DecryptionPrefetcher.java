@@ -0,0 +1,204 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import com.ulisesbocchio.jasyptspringboot.Helper;
+import org.jasypt.encryption.StringEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Decrypts the encrypted siblings of a property in the background, for a single enumerable property source.
+ * Spring Boot binds {@code @ConfigurationProperties} one prefix at a time, so when {@code spring.datasource.password}
+ * is read the other encrypted {@code spring.datasource.*} values are read right after. On the first decryption under
+ * a prefix, every other encrypted value under that prefix is submitted to a shared background pool, and reads of
+ * those values take the prefetched result. A read that finds its value still queued decrypts it on the calling thread,
+ * so prefetching never makes a read wait for the pool.</p>
+ * <p>Prefetched results are handed out once and then forgotten, later reads decrypt as usual. Results not read within
+ * {@value #EXPIRY_SECONDS} seconds are forgotten too, so decrypted values nobody reads are not kept. A result is only
+ * used while the property still holds the value it was decrypted from.</p>
+ * <p>Enabled JVM wide with {@code jasypt.encryptor.prefetch.enabled=true}, running on
+ * {@code jasypt.encryptor.prefetch.threads} daemon threads, by default one per processor. Decryptions only run in
+ * parallel if the encryptor allows it, like the {@code THREAD_LOCAL} encryptor type or a pool size matching the
+ * threads. Prefetching decryptions go through the {@link DecryptionScheduler} with background priority. The pool is
+ * shared by the application contexts enabling it, with the settings of the first one, and shut down once the last one
+ * is closed.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public final class DecryptionPrefetcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DecryptionPrefetcher.class);
+
+    static final int EXPIRY_SECONDS = 30;
+
+    private static volatile ScheduledExecutorService executor;
+
+    private static int references;
+
+    private final EnumerablePropertySource<?> source;
+    private final StringEncryptor encryptor;
+    private final ConcurrentMap<String, Prefetch> prefetched = new ConcurrentHashMap<String, Prefetch>();
+    private final Set<String> prefixes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private DecryptionPrefetcher(EnumerablePropertySource<?> source, StringEncryptor encryptor) {
+        this.source = source;
+        this.encryptor = encryptor;
+    }
+
+    /**
+     * Enables prefetching when {@code jasypt.encryptor.prefetch.enabled} is {@code true}, see {@link #enable(int)}.
+     *
+     * @return whether prefetching was enabled, in which case {@link #release()} must be called once it is no longer
+     * needed
+     */
+    public static boolean retain(Environment environment) {
+        if (!environment.getProperty("jasypt.encryptor.prefetch.enabled", Boolean.TYPE, false)) {
+            return false;
+        }
+        enable(environment.getProperty("jasypt.encryptor.prefetch.threads", Integer.class, Runtime.getRuntime().availableProcessors()));
+        return true;
+    }
+
+    /**
+     * Enables prefetching, or keeps the pool of a previous call, which is shut down once every call was
+     * {@link #release() released}.
+     */
+    public static synchronized void enable(int threads) {
+        if (executor == null) {
+            LOG.info("Prefetching encrypted sibling properties on {} background threads", threads);
+            executor = Executors.newScheduledThreadPool(Math.max(1, threads), new RemoteStringEncryptor.DaemonThreadFactory("jasypt-prefetch-"));
+        }
+        references++;
+    }
+
+    /**
+     * Releases a call to {@link #enable(int)}, disabling prefetching and shutting down its pool after the last one.
+     * Values still queued are decrypted by the thread reading them.
+     */
+    public static synchronized void release() {
+        if (references > 0 && --references == 0) {
+            executor.shutdownNow();
+            executor = null;
+            LOG.info("Stopped prefetching encrypted sibling properties");
+        }
+    }
+
+    public static boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * @param source the raw property source, whose values are still encrypted
+     * @return a prefetcher for the source, or {@code null} when prefetching is disabled or the source is not
+     * enumerable
+     */
+    public static DecryptionPrefetcher forSource(PropertySource<?> source, StringEncryptor encryptor) {
+        if (executor == null || !(source instanceof EnumerablePropertySource)) {
+            return null;
+        }
+        return new DecryptionPrefetcher((EnumerablePropertySource<?>) source, encryptor);
+    }
+
+    /**
+     * Decrypts the value of the property, taking its prefetched result if there is one, and prefetches its siblings if
+     * it is the first decryption under its prefix.
+     */
+    public String decrypt(String name, String encryptedValue) {
+        Prefetch prefetch = prefetched.remove(name);
+        if (prefetch == null || !prefetch.encryptedValue.equals(encryptedValue)) {
+            prefetchSiblings(name);
+            return Helper.decrypt(encryptor, encryptedValue, source.getName(), name);
+        }
+        // runs the decryption here unless a pool thread already started it
+        prefetch.task.run();
+        try {
+            return prefetch.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Helper.decrypt(encryptor, encryptedValue, source.getName(), name);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void prefetchSiblings(String name) {
+        int separator = name.lastIndexOf('.');
+        String parent = separator > 0 ? name.substring(0, separator) : null;
+        if (parent == null || !prefixes.add(parent)) {
+            return;
+        }
+        ScheduledExecutorService pool = executor;
+        if (pool == null) {
+            return;
+        }
+        String prefix = parent + '.';
+        int submitted = 0;
+        for (final String sibling : source.getPropertyNames()) {
+            if (!sibling.startsWith(prefix) || sibling.equals(name) || prefetched.containsKey(sibling)) {
+                continue;
+            }
+            String siblingParent = sibling.substring(0, sibling.lastIndexOf('.'));
+            if (!siblingParent.equals(parent) && prefixes.contains(siblingParent)) {
+                // nested prefix prefetched before, most likely bound already
+                continue;
+            }
+            Object value = source.getProperty(sibling);
+            if (value instanceof String && Helper.isEncryptedValue((String) value, encryptor)) {
+                final String encryptedValue = (String) value;
+                final Prefetch prefetch = new Prefetch(encryptedValue, new FutureTask<String>(new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return Helper.decrypt(encryptor, encryptedValue, source.getName(), sibling);
+                    }
+                }));
+                if (prefetched.putIfAbsent(sibling, prefetch) == null) {
+                    try {
+                        pool.execute(DecryptionScheduler.inBackground(prefetch.task));
+                        pool.schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                prefetched.remove(sibling, prefetch);
+                            }
+                        }, EXPIRY_SECONDS, TimeUnit.SECONDS);
+                    } catch (RejectedExecutionException e) {
+                        // released meanwhile, the value is decrypted when read
+                        prefetched.remove(sibling, prefetch);
+                        break;
+                    }
+                    submitted++;
+                }
+            }
+        }
+        if (submitted > 0) {
+            LOG.debug("Prefetching {} encrypted properties under {}* from {}", submitted, prefix, source.getName());
+        }
+    }
+
+    private static final class Prefetch {
+
+        private final String encryptedValue;
+        private final FutureTask<String> task;
+
+        private Prefetch(String encryptedValue, FutureTask<String> task) {
+            this.encryptedValue = encryptedValue;
+            this.task = task;
+        }
+    }
+}
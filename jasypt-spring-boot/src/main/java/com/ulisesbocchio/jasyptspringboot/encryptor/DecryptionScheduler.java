@@ -0,0 +1,277 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.util.Assert;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>JVM wide scheduler that the decryptions made by the library go through: property reads from wrapped or proxied
+ * property sources, {@link com.ulisesbocchio.jasyptspringboot.environment.EncryptableEnvironment}, encrypted files,
+ * prefetching and warm-up. It bounds how many decryptions run at once, and how much CPU time they use, so a burst of
+ * key derivations at startup does not exhaust a container's CPU quota and get the whole process throttled.</p>
+ * <p>Decryptions wait in a priority queue. Those requested by a thread reading a property, like the binder, run
+ * before background ones, like {@link DecryptionPrefetcher} and {@link EncryptorWarmUp}, and in arrival order within
+ * the same priority. The CPU budget is a share of the available processors, enforced as a bucket of CPU time refilled
+ * at that rate, holding up to 100 ms of it, from which every decryption takes the CPU time it measured. Once the bucket
+ * is empty, decryptions wait for it to refill.</p>
+ * <p>Enabled JVM wide with {@code jasypt.encryptor.scheduler.enabled=true}, running at most
+ * {@code jasypt.encryptor.scheduler.concurrency} decryptions at once, by default one per available processor, which
+ * recent JVMs derive from the container's CPU quota, within {@code jasypt.encryptor.scheduler.cpuBudget}, by default
+ * {@code 1}, the whole available processors. Decryptions nested in another one on the same thread are not
+ * scheduled again. The scheduler is shared by the application contexts enabling it, with the settings of the first
+ * one, and disabled once the last one is closed.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public final class DecryptionScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DecryptionScheduler.class);
+
+    private static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final ThreadLocal<Priority> PRIORITY = new ThreadLocal<Priority>();
+
+    private static final ThreadLocal<Boolean> SCHEDULED = new ThreadLocal<Boolean>();
+
+    private static final Permit UNSCHEDULED = new Permit(null, 0);
+
+    private static volatile DecryptionScheduler scheduler;
+
+    private static int references;
+
+    /**
+     * Order in which waiting decryptions run.
+     */
+    public enum Priority {
+        /**
+         * Decryption a thread is waiting for, like a property being read.
+         */
+        REQUESTED,
+        /**
+         * Decryption made ahead of time, by {@link DecryptionPrefetcher} or {@link EncryptorWarmUp}.
+         */
+        BACKGROUND
+    }
+
+    private final int concurrency;
+    private final double cpuPerNano;
+    private final double burst;
+    private final ThreadMXBean threads;
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<Waiter>();
+    private long sequence;
+    private int running;
+    private double credit;
+    private long lastRefill;
+
+    private DecryptionScheduler(int concurrency, double cpuBudget) {
+        this.concurrency = concurrency;
+        this.cpuPerNano = cpuBudget * Runtime.getRuntime().availableProcessors();
+        this.burst = cpuPerNano * BURST_NANOS;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        this.threads = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled() ? threads : null;
+        this.credit = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Enables scheduling when {@code jasypt.encryptor.scheduler.enabled} is {@code true}, see
+     * {@link #enable(int, double)}.
+     *
+     * @return whether scheduling was enabled, in which case {@link #release()} must be called once it is no longer
+     * needed
+     */
+    public static boolean retain(Environment environment) {
+        if (!environment.getProperty("jasypt.encryptor.scheduler.enabled", Boolean.TYPE, false)) {
+            return false;
+        }
+        enable(environment.getProperty("jasypt.encryptor.scheduler.concurrency", Integer.class, Runtime.getRuntime().availableProcessors()),
+                environment.getProperty("jasypt.encryptor.scheduler.cpuBudget", Double.class, 1.0));
+        return true;
+    }
+
+    /**
+     * Enables scheduling, or keeps the scheduler of a previous call, which is disabled once every call was
+     * {@link #release() released}.
+     *
+     * @param concurrency maximum number of decryptions running at once
+     * @param cpuBudget   share of the available processors' time decryptions may use, greater than {@code 0} and up
+     *                    to {@code 1}
+     */
+    public static synchronized void enable(int concurrency, double cpuBudget) {
+        Assert.isTrue(concurrency > 0, "Concurrency must be positive");
+        Assert.isTrue(cpuBudget > 0 && cpuBudget <= 1, "CPU budget must be greater than 0 and up to 1");
+        if (scheduler == null) {
+            LOG.info("Scheduling decryptions, at most {} at once within {}% of {} processors", concurrency,
+                    Math.round(cpuBudget * 100), Runtime.getRuntime().availableProcessors());
+            scheduler = new DecryptionScheduler(concurrency, cpuBudget);
+        }
+        references++;
+    }
+
+    /**
+     * Releases a call to {@link #enable(int, double)}, disabling scheduling after the last one. Decryptions already
+     * waiting still take their turn.
+     */
+    public static synchronized void release() {
+        if (references > 0 && --references == 0) {
+            scheduler = null;
+            LOG.info("Stopped scheduling decryptions");
+        }
+    }
+
+    public static boolean isEnabled() {
+        return scheduler != null;
+    }
+
+    /**
+     * Waits for the current thread's turn to decrypt, at the priority set by {@link #inBackground(Runnable)}, or
+     * {@link Priority#REQUESTED} otherwise. The permit must be released once the decryption is done, on the same
+     * thread:
+     * <pre>
+     *   DecryptionScheduler.Permit permit = DecryptionScheduler.acquire();
+     *   try {
+     *       ...
+     *   } finally {
+     *       permit.release();
+     *   }
+     * </pre>
+     * Returns right away when scheduling is disabled, the thread already holds a permit or it is interrupted while
+     * waiting, in which case its interrupted status is set again.
+     */
+    public static Permit acquire() {
+        DecryptionScheduler current = scheduler;
+        if (current == null || SCHEDULED.get() != null) {
+            return UNSCHEDULED;
+        }
+        Priority priority = PRIORITY.get();
+        return current.schedule(priority != null ? priority : Priority.REQUESTED);
+    }
+
+    /**
+     * @return a task running the given one with {@link Priority#BACKGROUND} decryptions
+     */
+    public static Runnable inBackground(final Runnable task) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                Priority previous = PRIORITY.get();
+                PRIORITY.set(Priority.BACKGROUND);
+                try {
+                    task.run();
+                } finally {
+                    if (previous != null) {
+                        PRIORITY.set(previous);
+                    } else {
+                        PRIORITY.remove();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Number of decryptions waiting for their turn.
+     */
+    public static int getWaiting() {
+        DecryptionScheduler current = scheduler;
+        if (current == null) {
+            return 0;
+        }
+        synchronized (current) {
+            return current.waiters.size();
+        }
+    }
+
+    private Permit schedule(Priority priority) {
+        synchronized (this) {
+            Waiter waiter = new Waiter(priority, sequence++);
+            waiters.add(waiter);
+            try {
+                while (true) {
+                    refill();
+                    if (waiters.peek() != waiter || running >= concurrency) {
+                        wait();
+                    } else if (credit <= 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, (long) (-credit / cpuPerNano) + 1);
+                    } else {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                waiters.remove(waiter);
+                notifyAll();
+                Thread.currentThread().interrupt();
+                return UNSCHEDULED;
+            }
+            waiters.poll();
+            running++;
+            // the next waiter may run too
+            notifyAll();
+        }
+        SCHEDULED.set(Boolean.TRUE);
+        return new Permit(this, time());
+    }
+
+    private void release(long start) {
+        SCHEDULED.remove();
+        long used = time() - start;
+        synchronized (this) {
+            running--;
+            credit -= used;
+            notifyAll();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        credit = Math.min(burst, credit + (now - lastRefill) * cpuPerNano);
+        lastRefill = now;
+    }
+
+    private long time() {
+        return threads != null ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Turn to decrypt, taken by {@link #acquire()}.
+     */
+    public static final class Permit {
+
+        private final DecryptionScheduler scheduler;
+        private final long start;
+
+        private Permit(DecryptionScheduler scheduler, long start) {
+            this.scheduler = scheduler;
+            this.start = start;
+        }
+
+        public void release() {
+            if (scheduler != null) {
+                scheduler.release(start);
+            }
+        }
+    }
+
+    private static final class Waiter implements Comparable<Waiter> {
+
+        private final Priority priority;
+        private final long sequence;
+
+        private Waiter(Priority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : (sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import com.ulisesbocchio.jasyptspringboot.exception.DecryptionException;
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.FileCopyUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * <p>Encrypts and decrypts whole property files, as loaded by
+ * {@link com.ulisesbocchio.jasyptspringboot.annotation.EncryptablePropertySource#encryptedFile()}. The file content
+ * is encrypted as a single message, so decrypting a file costs one key derivation regardless of how many properties
+ * it holds.</p>
+ * <p>Files are handled as raw bytes, mapped one to one to characters, so any encoding survives the round trip and the
+ * decrypted file is parsed exactly as the original would have been. The encrypted output is wrapped in lines of
+ * {@value #LINE_LENGTH} characters, all whitespace is ignored when decrypting.</p>
+ * <p>It can be run from the command line, taking the encryptor configuration from the usual
+ * {@code jasypt.encryptor.*} system properties or environment variables:</p>
+ * <pre>
+ *   java -Djasypt.encryptor.password=password -cp ... com.ulisesbocchio.jasyptspringboot.encryptor.EncryptedFileTool encrypt application.properties
+ * </pre>
+ * <p>Which writes {@code application.properties.enc}. {@code decrypt application.properties.enc} writes the file
+ * back, with the {@code .enc} extension removed.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class EncryptedFileTool {
+
+    public static final String ENCRYPTED_FILE_EXTENSION = ".enc";
+
+    static final int LINE_LENGTH = 76;
+
+    private static final String BYTE_CHARSET = "ISO-8859-1";
+
+    public static String encrypt(StringEncryptor encryptor, byte[] content) {
+        String encrypted = encryptor.encrypt(toMessage(content));
+        StringBuilder wrapped = new StringBuilder(encrypted.length() + encrypted.length() / LINE_LENGTH + 1);
+        for (int i = 0; i < encrypted.length(); i += LINE_LENGTH) {
+            wrapped.append(encrypted, i, Math.min(encrypted.length(), i + LINE_LENGTH)).append('\n');
+        }
+        return wrapped.toString();
+    }
+
+    public static byte[] decrypt(StringEncryptor encryptor, String encryptedContent) {
+        StringBuilder message = new StringBuilder(encryptedContent.length());
+        for (int i = 0; i < encryptedContent.length(); i++) {
+            char c = encryptedContent.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                message.append(c);
+            }
+        }
+        try {
+            return toBytes(encryptor.decrypt(message.toString()));
+        } catch (EncryptionOperationNotPossibleException e) {
+            throw new DecryptionException("Decryption of encrypted file failed, make sure encryption/decryption " +
+                    "passwords match", e);
+        }
+    }
+
+    /**
+     * Removes the {@value #ENCRYPTED_FILE_EXTENSION} extension, if present.
+     */
+    public static String decryptedFilename(String filename) {
+        if (filename != null && filename.endsWith(ENCRYPTED_FILE_EXTENSION)) {
+            return filename.substring(0, filename.length() - ENCRYPTED_FILE_EXTENSION.length());
+        }
+        return filename;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !("encrypt".equals(args[0]) || "decrypt".equals(args[0]))) {
+            System.err.println("Usage: EncryptedFileTool encrypt|decrypt <input file> [output file]");
+            System.exit(1);
+        }
+        boolean encrypt = "encrypt".equals(args[0]);
+        File input = new File(args[1]);
+        File output;
+        if (args.length > 2) {
+            output = new File(args[2]);
+        } else {
+            output = new File(encrypt ? input.getPath() + ENCRYPTED_FILE_EXTENSION : decryptedFilename(input.getPath()));
+        }
+        if (output.getCanonicalFile().equals(input.getCanonicalFile())) {
+            throw new IllegalArgumentException("Output file must be different from input file: " + output);
+        }
+        StringEncryptor encryptor = new LazyStringEncryptor(new StandardEnvironment());
+        byte[] content = FileCopyUtils.copyToByteArray(input);
+        byte[] result = encrypt ? encrypt(encryptor, content).getBytes(BYTE_CHARSET) : decrypt(encryptor, toMessage(content));
+        FileCopyUtils.copy(result, output);
+        System.out.println((encrypt ? "Encrypted " : "Decrypted ") + input + " to " + output);
+    }
+
+    private static String toMessage(byte[] content) {
+        try {
+            return new String(content, BYTE_CHARSET);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] toBytes(String message) {
+        try {
+            return message.getBytes(BYTE_CHARSET);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+/**
+ * Kind of PBE encryptor built by {@link LazyStringEncryptor}, selected with {@code jasypt.encryptor.type}.
+ *
+ * @author Ulises Bocchio
+ */
+public enum EncryptorType {
+    /**
+     * {@link org.jasypt.encryption.pbe.PooledPBEStringEncryptor} with {@code jasypt.encryptor.poolSize} encryptors,
+     * suited to decrypting configuration.
+     */
+    POOLED,
+    /**
+     * {@link ThreadLocalPBEStringEncryptor}, one encryptor per thread, suited to high throughput runtime encryption.
+     */
+    THREAD_LOCAL,
+    /**
+     * {@link BufferedPBEStringEncryptor}, per thread ciphers and buffers, compatible with the other types' results and
+     * allocating less per operation.
+     */
+    BUFFERED
+}
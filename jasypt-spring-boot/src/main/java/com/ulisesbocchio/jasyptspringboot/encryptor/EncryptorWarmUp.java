@@ -0,0 +1,155 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Runs dummy encrypt/decrypt cycles on background daemon threads once the application context is started, so that
+ * the one time costs of the first runtime encryption or decryption, like loading the JCE provider, seeding
+ * {@link java.security.SecureRandom}, initializing ciphers and compiling hot code, are not paid by the first request
+ * using the {@link StringEncryptor}. It starts with the context's lifecycle beans, after properties were bound, so it
+ * never competes with startup for the encryptor, and failures are only logged.</p>
+ * <p>One thread per encryptor pool slot is started, so all slots of a
+ * {@link org.jasypt.encryption.pbe.PooledPBEStringEncryptor} are initialized. The {@code THREAD_LOCAL} and
+ * {@code BUFFERED} encryptor types keep an encryptor per thread, so the warm-up threads only initialize their own, and
+ * other threads still initialize theirs on first use, only without the JVM wide costs paid by the warm-up. Inject this
+ * bean to check readiness with {@link #isReady()} or {@link #awaitReady(long, TimeUnit)}. Cycles go through the
+ * {@link DecryptionScheduler} with background priority, so they never delay decryptions of properties being read.</p>
+ * <p>Registered when {@code jasypt.encryptor.warmup.enabled} is {@code true}.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class EncryptorWarmUp implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EncryptorWarmUp.class);
+
+    private static final String WARM_UP_MESSAGE = "jasypt-warm-up";
+
+    private final StringEncryptor encryptor;
+    private final int threads;
+    private final int iterations;
+    private final CountDownLatch ready;
+    private final AtomicInteger running;
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile boolean started;
+    private volatile boolean cancelled;
+
+    public EncryptorWarmUp(StringEncryptor encryptor, int threads, int iterations) {
+        this.encryptor = encryptor;
+        this.threads = Math.max(1, threads);
+        this.iterations = Math.max(1, iterations);
+        this.ready = new CountDownLatch(1);
+        this.running = new AtomicInteger(this.threads);
+    }
+
+    /**
+     * Starts the warm-up threads and returns immediately. The warm-up only runs once.
+     */
+    @Override
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        LOG.info("Warming up StringEncryptor on {} background threads", threads);
+        final long start = System.nanoTime();
+        ThreadFactory threadFactory = new RemoteStringEncryptor.DaemonThreadFactory("jasypt-warm-up-");
+        for (int i = 0; i < threads; i++) {
+            Thread thread = threadFactory.newThread(DecryptionScheduler.inBackground(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        warmUp(encryptor);
+                    } catch (RuntimeException e) {
+                        if (failures.getAndIncrement() == 0) {
+                            LOG.warn("StringEncryptor warm-up failed, first decryption will initialize the encryptor", e);
+                        }
+                    } finally {
+                        if (running.decrementAndGet() == 0) {
+                            if (failures.get() == 0) {
+                                LOG.info("StringEncryptor warm-up completed in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                            }
+                            ready.countDown();
+                        }
+                    }
+                }
+            }));
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+        }
+    }
+
+    private void warmUp(StringEncryptor encryptor) {
+        for (int i = 0; i < iterations && !cancelled; i++) {
+            String decrypted;
+            DecryptionScheduler.Permit permit = DecryptionScheduler.acquire();
+            try {
+                decrypted = encryptor.decrypt(encryptor.encrypt(WARM_UP_MESSAGE));
+            } finally {
+                permit.release();
+            }
+            if (!WARM_UP_MESSAGE.equals(decrypted)) {
+                throw new IllegalStateException("StringEncryptor did not decrypt its own encrypted message");
+            }
+        }
+    }
+
+    /**
+     * Whether all warm-up threads finished, successfully or not.
+     */
+    public boolean isReady() {
+        return ready.getCount() == 0;
+    }
+
+    /**
+     * Whether the warm-up finished without errors.
+     */
+    public boolean isSuccessful() {
+        return isReady() && failures.get() == 0;
+    }
+
+    /**
+     * Waits for the warm-up to finish.
+     *
+     * @return whether the warm-up finished within the timeout
+     */
+    public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+        return ready.await(timeout, unit);
+    }
+
+    /**
+     * Stops the warm-up threads after their current cycle.
+     */
+    @Override
+    public void stop() {
+        cancelled = true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return started && !cancelled && !isReady();
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import com.ulisesbocchio.jasyptspringboot.salt.ThreadLocalRandomSaltGenerator;
+import org.jasypt.encryption.pbe.config.SimplePBEConfig;
+import org.springframework.core.env.Environment;
+
+import java.nio.ByteBuffer;
+
+import static com.ulisesbocchio.jasyptspringboot.Helper.getProperty;
+import static com.ulisesbocchio.jasyptspringboot.Helper.getRequiredProperty;
+
+/**
+ * Byte encryptor that, like {@link LazyStringEncryptor}, delays pulling the {@code jasypt.encryptor.*} configuration
+ * properties until its first operation, and then delegates to a {@link PBEByteBufferEncryptor}. The password,
+ * algorithm, key obtention iterations, provider and salt generator are shared with the string encryptor, so binary
+ * results use the same keys. The salt generator defaults to {@link ThreadLocalRandomSaltGenerator}, whose results are
+ * compatible with those of {@link org.jasypt.salt.RandomSaltGenerator}.
+ *
+ * @author Ulises Bocchio
+ */
+public final class LazyByteBufferEncryptor implements ByteBufferEncryptor {
+
+    private final Environment environment;
+    private volatile ByteBufferEncryptor delegate;
+
+    public LazyByteBufferEncryptor(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public int encrypt(ByteBuffer message, ByteBuffer output) {
+        return getDelegate().encrypt(message, output);
+    }
+
+    @Override
+    public int decrypt(ByteBuffer encryptedMessage, ByteBuffer output) {
+        return getDelegate().decrypt(encryptedMessage, output);
+    }
+
+    @Override
+    public byte[] encrypt(byte[] message) {
+        return getDelegate().encrypt(message);
+    }
+
+    @Override
+    public byte[] decrypt(byte[] encryptedMessage) {
+        return getDelegate().decrypt(encryptedMessage);
+    }
+
+    @Override
+    public int getEncryptedSize(int messageLength) {
+        return getDelegate().getEncryptedSize(messageLength);
+    }
+
+    @Override
+    public int getMaxDecryptedSize(int encryptedLength) {
+        return getDelegate().getMaxDecryptedSize(encryptedLength);
+    }
+
+    private ByteBufferEncryptor getDelegate() {
+        ByteBufferEncryptor encryptor = delegate;
+        if (encryptor == null) {
+            synchronized (this) {
+                encryptor = delegate;
+                if (encryptor == null) {
+                    encryptor = configure(environment);
+                    delegate = encryptor;
+                }
+            }
+        }
+        return encryptor;
+    }
+
+    private static ByteBufferEncryptor configure(Environment e) {
+        SimplePBEConfig config = new SimplePBEConfig();
+        config.setPassword(getRequiredProperty(e, "jasypt.encryptor.password"));
+        config.setAlgorithm(getProperty(e, "jasypt.encryptor.algorithm", "PBEWithMD5AndDES"));
+        config.setKeyObtentionIterations(getProperty(e, "jasypt.encryptor.keyObtentionIterations", "1000"));
+        config.setProviderName(getProperty(e, "jasypt.encryptor.providerName", "SunJCE"));
+        config.setSaltGeneratorClassName(getProperty(e, "jasypt.encryptor.saltGeneratorClassname", ThreadLocalRandomSaltGenerator.class.getName()));
+        return new PBEByteBufferEncryptor(config);
+    }
+}
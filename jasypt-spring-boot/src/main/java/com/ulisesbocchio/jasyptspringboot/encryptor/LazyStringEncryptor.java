@@ -1,9 +1,23 @@
 package com.ulisesbocchio.jasyptspringboot.encryptor;
 
+import com.ulisesbocchio.jasyptspringboot.observation.FlightRecorderEvents;
+import com.ulisesbocchio.jasyptspringboot.salt.ThreadLocalRandomSaltGenerator;
 import org.jasypt.encryption.StringEncryptor;
 import org.jasypt.encryption.pbe.PooledPBEStringEncryptor;
 import org.jasypt.encryption.pbe.config.SimpleStringPBEConfig;
+import org.jasypt.properties.PropertyValueEncryptionUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 import static com.ulisesbocchio.jasyptspringboot.Helper.getProperty;
 import static com.ulisesbocchio.jasyptspringboot.Helper.getRequiredProperty;
@@ -13,36 +27,204 @@ import static com.ulisesbocchio.jasyptspringboot.Helper.getRequiredProperty;
  * first encrypted property is retrieved. Thus allowing for late retrieval of
  * configuration when all property sources have been established, and avoids missing configuration properties errors
  * when no encrypted properties are present in configuration files.
+ * The encryptor is configured only once and reused for all subsequent operations. When
+ * {@code jasypt.encryptor.remote.url} is present a {@link RemoteStringEncryptor} is used instead of the local PBE one,
+ * and, unless {@code jasypt.encryptor.remote.prefetch} is {@code false}, the {@code ENC(...)} values found in the
+ * environment are sent to it in batches on first use. Only the default encryptor prefetches: encryptors configured
+ * under other prefixes never decrypt environment values, which must not reach their key service. Otherwise {@code jasypt.encryptor.type} selects a
+ * {@link org.jasypt.encryption.pbe.PooledPBEStringEncryptor} ({@code POOLED}, the default) or a
+ * {@link ThreadLocalPBEStringEncryptor} ({@code THREAD_LOCAL}) for high throughput runtime encryption, or a
+ * {@link BufferedPBEStringEncryptor} ({@code BUFFERED}) allocating less per operation.
+ * The encryptor can also be configured under a different property prefix, like the
+ * {@code jasypt.encryptor.tenants.<id>} prefixes used by {@link TenantStringEncryptorResolver}, in which case every
+ * property but the password falls back to its {@code jasypt.encryptor.*} value. With
+ * {@code jasypt.encryptor.shared=true} the default local PBE encryptor is taken from the {@link SharedEncryptorRegistry},
+ * so every application context in the JVM with the same configuration shares one encryptor and its decrypted values.
+ * Encryptors under other prefixes are never shared, so that tenant encryptors are not kept for the lifetime of the
+ * JVM.
+ * Destroying the encryptor, as the application context does on close, shuts down the remote encryptor, if any.
  */
-public final class LazyStringEncryptor implements StringEncryptor {
+public final class LazyStringEncryptor implements StringEncryptor, DisposableBean {
+
+    static final String DEFAULT_PREFIX = "jasypt.encryptor";
 
-    private Environment environment;
+    private final Environment environment;
+    private final String prefix;
+    private volatile StringEncryptor delegate;
+    private volatile String algorithm;
 
     public LazyStringEncryptor(Environment environment) {
+        this(environment, DEFAULT_PREFIX);
+    }
+
+    /**
+     * @param prefix property prefix of the encryptor configuration, like {@code jasypt.encryptor.tenants.acme}
+     */
+    public LazyStringEncryptor(Environment environment, String prefix) {
         this.environment = environment;
+        this.prefix = prefix;
     }
 
     @Override
     public String encrypt(String message) {
-        return configure(environment).encrypt(message);
+        return getDelegate().encrypt(message);
     }
 
     @Override
     public String decrypt(String encryptedMessage) {
-        return configure(environment).decrypt(encryptedMessage);
+        return getDelegate().decrypt(encryptedMessage);
+    }
+
+    /**
+     * Destroys the encryptor configured, if it is a {@link DisposableBean}, like {@link RemoteStringEncryptor}. An
+     * encryptor that was never used is not configured.
+     */
+    @Override
+    public void destroy() throws Exception {
+        StringEncryptor encryptor;
+        synchronized (this) {
+            encryptor = delegate;
+        }
+        if (encryptor instanceof DisposableBean) {
+            ((DisposableBean) encryptor).destroy();
+        }
+    }
+
+    /**
+     * The algorithm of the local PBE encryptor, or {@code null} before the first operation or when a remote
+     * encryptor is used.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    private StringEncryptor getDelegate() {
+        StringEncryptor encryptor = delegate;
+        if (encryptor == null) {
+            synchronized (this) {
+                encryptor = delegate;
+                if (encryptor == null) {
+                    Object event = FlightRecorderEvents.beginEncryptorInitialization();
+                    encryptor = configure(environment);
+                    delegate = encryptor;
+                    FlightRecorderEvents.endEncryptorInitialization(event, encryptor.getClass().getSimpleName(), algorithm);
+                }
+            }
+        }
+        return encryptor;
     }
 
     private StringEncryptor configure(final Environment e) {
-        PooledPBEStringEncryptor encryptor = new PooledPBEStringEncryptor();
+        if (e.containsProperty(prefix + ".remote.url")) {
+            return configureRemote(e);
+        }
+        final Map<String, String> settings = new LinkedHashMap<String, String>();
+        settings.put("type", EncryptorType.valueOf(property(e, "type", "POOLED").trim().replace('-', '_').toUpperCase()).name());
+        settings.put("password", getRequiredProperty(e, prefix + ".password"));
+        settings.put("algorithm", property(e, "algorithm", "PBEWithMD5AndDES"));
+        settings.put("keyObtentionIterations", property(e, "keyObtentionIterations", "1000"));
+        settings.put("providerName", property(e, "providerName", "SunJCE"));
+        settings.put("stringOutputType", property(e, "stringOutputType", "base64"));
+        if (!EncryptorType.POOLED.name().equals(settings.get("type"))) {
+            settings.put("saltGeneratorClassname", property(e, "saltGeneratorClassname", ThreadLocalRandomSaltGenerator.class.getName()));
+        } else {
+            settings.put("poolSize", property(e, "poolSize", "1"));
+            settings.put("saltGeneratorClassname", property(e, "saltGeneratorClassname", "org.jasypt.salt.RandomSaltGenerator"));
+        }
+        algorithm = settings.get("algorithm");
+        if (DEFAULT_PREFIX.equals(prefix) && e.getProperty("jasypt.encryptor.shared", Boolean.TYPE, false)) {
+            return SharedEncryptorRegistry.getEncryptor(settings, e.getProperty("jasypt.encryptor.sharedCacheSize", Integer.class, 10000),
+                    new Callable<StringEncryptor>() {
+                        @Override
+                        public StringEncryptor call() {
+                            return createEncryptor(settings);
+                        }
+                    });
+        }
+        return createEncryptor(settings);
+    }
+
+    private static StringEncryptor createEncryptor(Map<String, String> settings) {
         SimpleStringPBEConfig config = new SimpleStringPBEConfig();
-        config.setPassword(getRequiredProperty(e, "jasypt.encryptor.password"));
-        config.setAlgorithm(getProperty(e, "jasypt.encryptor.algorithm", "PBEWithMD5AndDES"));
-        config.setKeyObtentionIterations(getProperty(e, "jasypt.encryptor.keyObtentionIterations", "1000"));
-        config.setPoolSize(getProperty(e, "jasypt.encryptor.poolSize", "1"));
-        config.setProviderName(getProperty(e, "jasypt.encryptor.providerName", "SunJCE"));
-        config.setSaltGeneratorClassName(getProperty(e, "jasypt.encryptor.saltGeneratorClassname", "org.jasypt.salt.RandomSaltGenerator"));
-        config.setStringOutputType(getProperty(e, "jasypt.encryptor.stringOutputType", "base64"));
+        config.setPassword(settings.get("password"));
+        config.setAlgorithm(settings.get("algorithm"));
+        config.setKeyObtentionIterations(settings.get("keyObtentionIterations"));
+        config.setProviderName(settings.get("providerName"));
+        config.setStringOutputType(settings.get("stringOutputType"));
+        config.setSaltGeneratorClassName(settings.get("saltGeneratorClassname"));
+        if (EncryptorType.THREAD_LOCAL.name().equals(settings.get("type"))) {
+            return new ThreadLocalPBEStringEncryptor(config);
+        }
+        if (EncryptorType.BUFFERED.name().equals(settings.get("type"))) {
+            return new BufferedPBEStringEncryptor(config);
+        }
+        PooledPBEStringEncryptor encryptor = new PooledPBEStringEncryptor();
+        config.setPoolSize(settings.get("poolSize"));
         encryptor.setConfig(config);
         return encryptor;
     }
+
+    private StringEncryptor configureRemote(final Environment e) {
+        RemoteStringEncryptor encryptor = new RemoteStringEncryptor(getRequiredProperty(e, prefix + ".remote.url"),
+                Integer.parseInt(property(e, "remote.connectTimeout", "2000")),
+                Integer.parseInt(property(e, "remote.readTimeout", "5000")),
+                Integer.parseInt(property(e, "remote.batchSize", "100")),
+                Long.parseLong(property(e, "remote.batchWindow", "5")),
+                Integer.parseInt(property(e, "remote.maxConcurrentRequests", "4")),
+                Long.parseLong(property(e, "remote.timeout", "10000")),
+                Integer.parseInt(property(e, "remote.cacheSize", String.valueOf(RemoteStringEncryptor.DEFAULT_CACHE_SIZE))));
+        // a tenant's key service must not receive the values of the default encryptor or of other tenants
+        if (DEFAULT_PREFIX.equals(prefix) && e instanceof ConfigurableEnvironment
+                && e.getProperty(DEFAULT_PREFIX + ".remote.prefetch", Boolean.TYPE, true)) {
+            Set<String> encryptedMessages = new LinkedHashSet<String>();
+            for (PropertySource<?> propertySource : ((ConfigurableEnvironment) e).getPropertySources()) {
+                collectEncryptedMessages(propertySource, encryptedMessages);
+            }
+            encryptor.prefetch(encryptedMessages);
+        }
+        return encryptor;
+    }
+
+    /**
+     * Reads {@code <prefix>.<name>}, falling back to {@code jasypt.encryptor.<name>} for non default prefixes.
+     */
+    private String property(Environment e, String name, String defaultValue) {
+        if (!DEFAULT_PREFIX.equals(prefix)) {
+            String value = e.getProperty(prefix + "." + name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return getProperty(e, DEFAULT_PREFIX + "." + name, defaultValue);
+    }
+
+    /**
+     * Walks the raw values backing the property sources. Values are read from the underlying maps rather than through
+     * {@link PropertySource#getProperty(String)}, since the sources may already be wrapped with this same encryptor.
+     */
+    private static void collectEncryptedMessages(PropertySource<?> propertySource, Set<String> encryptedMessages) {
+        if (propertySource instanceof CompositePropertySource) {
+            collectEncryptedMessages(((CompositePropertySource) propertySource).getPropertySources(), encryptedMessages);
+            return;
+        }
+        Object source = propertySource.getSource();
+        if (source instanceof Map) {
+            for (Object value : ((Map<?, ?>) source).values()) {
+                if (value instanceof String && PropertyValueEncryptionUtils.isEncryptedValue((String) value)) {
+                    String trimmedValue = ((String) value).trim();
+                    encryptedMessages.add(trimmedValue.substring("ENC(".length(), trimmedValue.length() - 1));
+                }
+            }
+        } else if (source instanceof Collection) {
+            collectEncryptedMessages((Collection<?>) source, encryptedMessages);
+        }
+    }
+
+    private static void collectEncryptedMessages(Collection<?> propertySources, Set<String> encryptedMessages) {
+        for (Object nested : propertySources) {
+            if (nested instanceof PropertySource) {
+                collectEncryptedMessages((PropertySource<?>) nested, encryptedMessages);
+            }
+        }
+    }
 }
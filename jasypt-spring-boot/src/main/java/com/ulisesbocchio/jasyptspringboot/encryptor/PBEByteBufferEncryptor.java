@@ -0,0 +1,187 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import com.ulisesbocchio.jasyptspringboot.salt.ThreadLocalRandomSaltGenerator;
+import org.jasypt.encryption.pbe.config.PBECleanablePasswordConfig;
+import org.jasypt.encryption.pbe.config.PBEConfig;
+import org.jasypt.exceptions.EncryptionInitializationException;
+import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
+import org.jasypt.salt.SaltGenerator;
+import org.springframework.util.Assert;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.PBEParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Provider;
+import java.util.Arrays;
+
+/**
+ * <p>{@link ByteBufferEncryptor} producing the same format as jasypt's
+ * {@link org.jasypt.encryption.pbe.StandardPBEByteEncryptor} with the same configuration: the salt, one cipher block
+ * long, followed by the ciphertext. Results of either can be decrypted by the other, and by a
+ * {@link org.jasypt.encryption.pbe.StandardPBEStringEncryptor} once base64 or hexadecimal encoded.</p>
+ * <p>Every thread keeps its own {@link Cipher} and salt buffer, so operations never wait on each other. As with any
+ * PBE encryptor, a key is derived from the password and the salt of every message.</p>
+ * <p>The configuration is read once on construction, when the password is turned into a {@link SecretKey}.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class PBEByteBufferEncryptor implements ByteBufferEncryptor {
+
+    private static final int DEFAULT_SALT_SIZE_BYTES = 8;
+
+    private final SecretKey key;
+    private final int keyObtentionIterations;
+    private final SaltGenerator saltGenerator;
+    private final boolean plainSaltIncluded;
+    private final int saltSize;
+    private final int blockSize;
+    private final ThreadLocal<CipherState> state;
+
+    public PBEByteBufferEncryptor(PBEConfig config) {
+        Assert.notNull(config, "PBEConfig cannot be null");
+        final String algorithm = config.getAlgorithm() != null ? config.getAlgorithm() : "PBEWithMD5AndDES";
+        char[] password = config instanceof PBECleanablePasswordConfig
+                ? ((PBECleanablePasswordConfig) config).getPasswordCharArray().clone()
+                : config.getPassword() != null ? config.getPassword().toCharArray() : null;
+        Assert.notNull(password, "Password cannot be null");
+        this.keyObtentionIterations = config.getKeyObtentionIterations() != null ? config.getKeyObtentionIterations() : 1000;
+        this.saltGenerator = config.getSaltGenerator() != null ? config.getSaltGenerator() : new ThreadLocalRandomSaltGenerator();
+        this.plainSaltIncluded = saltGenerator.includePlainSaltInEncryptionResults();
+        final String providerName = config.getProviderName();
+        final Provider provider = config.getProvider();
+        try {
+            SecretKeyFactory factory = provider != null ? SecretKeyFactory.getInstance(algorithm, provider)
+                    : providerName != null ? SecretKeyFactory.getInstance(algorithm, providerName)
+                    : SecretKeyFactory.getInstance(algorithm);
+            this.key = factory.generateSecret(new PBEKeySpec(password));
+        } catch (GeneralSecurityException e) {
+            throw new EncryptionInitializationException(e);
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+        // fail fast on invalid configuration
+        this.blockSize = createCipher(algorithm, provider, providerName).getBlockSize();
+        this.saltSize = blockSize > 0 ? blockSize : DEFAULT_SALT_SIZE_BYTES;
+        this.state = new ThreadLocal<CipherState>() {
+            @Override
+            protected CipherState initialValue() {
+                return new CipherState(createCipher(algorithm, provider, providerName), saltSize);
+            }
+        };
+    }
+
+    private static Cipher createCipher(String algorithm, Provider provider, String providerName) {
+        try {
+            return provider != null ? Cipher.getInstance(algorithm, provider)
+                    : providerName != null ? Cipher.getInstance(algorithm, providerName)
+                    : Cipher.getInstance(algorithm);
+        } catch (GeneralSecurityException e) {
+            throw new EncryptionInitializationException(e);
+        }
+    }
+
+    @Override
+    public int encrypt(ByteBuffer message, ByteBuffer output) {
+        CipherState state = this.state.get();
+        int messagePosition = message.position();
+        int outputPosition = output.position();
+        int encryptedSize = getEncryptedSize(message.remaining());
+        if (output.remaining() < encryptedSize) {
+            throw new IllegalArgumentException("Output buffer too small: " + output.remaining() + " bytes remaining, "
+                    + encryptedSize + " required");
+        }
+        try {
+            byte[] salt = state.salt;
+            nextSalt(salt);
+            state.cipher.init(Cipher.ENCRYPT_MODE, key, new PBEParameterSpec(salt, keyObtentionIterations));
+            if (plainSaltIncluded) {
+                output.put(salt);
+            }
+            state.cipher.doFinal(message, output);
+            return output.position() - outputPosition;
+        } catch (GeneralSecurityException e) {
+            message.position(messagePosition);
+            output.position(outputPosition);
+            throw new EncryptionOperationNotPossibleException();
+        }
+    }
+
+    @Override
+    public int decrypt(ByteBuffer encryptedMessage, ByteBuffer output) {
+        CipherState state = this.state.get();
+        int encryptedPosition = encryptedMessage.position();
+        int outputPosition = output.position();
+        int maxDecryptedSize = getMaxDecryptedSize(encryptedMessage.remaining());
+        if (output.remaining() < maxDecryptedSize) {
+            throw new IllegalArgumentException("Output buffer too small: " + output.remaining() + " bytes remaining, "
+                    + maxDecryptedSize + " required");
+        }
+        if (plainSaltIncluded && encryptedMessage.remaining() < saltSize) {
+            throw new EncryptionOperationNotPossibleException();
+        }
+        try {
+            byte[] salt = state.salt;
+            if (plainSaltIncluded) {
+                encryptedMessage.get(salt);
+            } else {
+                nextSalt(salt);
+            }
+            state.cipher.init(Cipher.DECRYPT_MODE, key, new PBEParameterSpec(salt, keyObtentionIterations));
+            state.cipher.doFinal(encryptedMessage, output);
+            return output.position() - outputPosition;
+        } catch (GeneralSecurityException e) {
+            encryptedMessage.position(encryptedPosition);
+            output.position(outputPosition);
+            throw new EncryptionOperationNotPossibleException();
+        }
+    }
+
+    @Override
+    public byte[] encrypt(byte[] message) {
+        byte[] output = new byte[getEncryptedSize(message.length)];
+        int length = encrypt(ByteBuffer.wrap(message), ByteBuffer.wrap(output));
+        return length == output.length ? output : Arrays.copyOf(output, length);
+    }
+
+    @Override
+    public byte[] decrypt(byte[] encryptedMessage) {
+        byte[] output = new byte[getMaxDecryptedSize(encryptedMessage.length)];
+        int length = decrypt(ByteBuffer.wrap(encryptedMessage), ByteBuffer.wrap(output));
+        return length == output.length ? output : Arrays.copyOf(output, length);
+    }
+
+    @Override
+    public int getEncryptedSize(int messageLength) {
+        // PBE block ciphers are padded with PKCS#5, which always adds between 1 and blockSize bytes
+        int cipherLength = blockSize > 0 ? (messageLength / blockSize + 1) * blockSize : messageLength;
+        return (plainSaltIncluded ? saltSize : 0) + cipherLength;
+    }
+
+    @Override
+    public int getMaxDecryptedSize(int encryptedLength) {
+        return Math.max(0, encryptedLength - (plainSaltIncluded ? saltSize : 0));
+    }
+
+    private void nextSalt(byte[] salt) {
+        if (saltGenerator instanceof ThreadLocalRandomSaltGenerator) {
+            ((ThreadLocalRandomSaltGenerator) saltGenerator).generateSalt(salt);
+        } else {
+            System.arraycopy(saltGenerator.generateSalt(salt.length), 0, salt, 0, salt.length);
+        }
+    }
+
+    private static final class CipherState {
+
+        private final Cipher cipher;
+        private final byte[] salt;
+
+        private CipherState(Cipher cipher, int saltSize) {
+            this.cipher = cipher;
+            this.salt = new byte[saltSize];
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import com.ulisesbocchio.jasyptspringboot.cache.StringDeduplicator;
+import com.ulisesbocchio.jasyptspringboot.exception.DecryptionException;
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>String encryptor that delegates encryption and decryption to a remote key service over HTTP, so the master
+ * password never has to be part of the application configuration.</p>
+ * <p>Operations are not sent one by one: concurrent callers are queued and the queue is flushed in micro-batches of up
+ * to {@code batchSize} values, waiting at most {@code batchWindowMillis} for a batch to fill up. Up to
+ * {@code maxConcurrentRequests} batches are kept in flight at the same time over the JDK's keep-alive connection pool.
+ * Up to {@code cacheSize} decrypted values are remembered, least recently used first out, so each ciphertext usually
+ * costs a single round trip, and {@link #prefetch(Collection)} can be used to decrypt many values at once ahead of
+ * time.</p>
+ * <p>Every instance runs a dispatcher thread and a pool of request threads, stopped by {@link #shutdown()}, which
+ * {@link #destroy()} calls when the encryptor is a bean.</p>
+ * <p>The wire protocol is a plain text body with one URL encoded value per line, POSTed to {@code {url}/encrypt} or
+ * {@code {url}/decrypt}. The response contains one line per value in the same order, either {@code =value} or
+ * {@code !error message}.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class RemoteStringEncryptor implements StringEncryptor, DisposableBean {
+
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(RemoteStringEncryptor.class);
+
+    static final String ENCRYPT_PATH = "/encrypt";
+    static final String DECRYPT_PATH = "/decrypt";
+    static final String CHARSET = "UTF-8";
+    static final char RESULT_PREFIX = '=';
+    static final char ERROR_PREFIX = '!';
+
+    private final String url;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int batchSize;
+    private final long batchWindowMillis;
+    private final long operationTimeoutMillis;
+    private final Map<String, String> decryptedValues;
+    private final ConcurrentMap<String, PendingOperation> pendingDecryptions = new ConcurrentHashMap<String, PendingOperation>();
+    private final BlockingQueue<PendingOperation> queue = new LinkedBlockingQueue<PendingOperation>();
+    private final ExecutorService requestExecutor;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public RemoteStringEncryptor(String url) {
+        this(url, 2000, 5000, 100, 5, 4, 10000);
+    }
+
+    public RemoteStringEncryptor(String url, int connectTimeout, int readTimeout, int batchSize, long batchWindowMillis,
+                                 int maxConcurrentRequests, long operationTimeoutMillis) {
+        this(url, connectTimeout, readTimeout, batchSize, batchWindowMillis, maxConcurrentRequests, operationTimeoutMillis, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize maximum number of decrypted values remembered, {@code 0} to remember none
+     */
+    public RemoteStringEncryptor(String url, int connectTimeout, int readTimeout, int batchSize, long batchWindowMillis,
+                                 int maxConcurrentRequests, long operationTimeoutMillis, final int cacheSize) {
+        Assert.hasText(url, "Remote encryptor url cannot be empty");
+        Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+        Assert.isTrue(maxConcurrentRequests > 0, "Max concurrent requests must be greater than 0");
+        Assert.isTrue(cacheSize >= 0, "Cache size cannot be negative");
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.batchSize = batchSize;
+        this.batchWindowMillis = batchWindowMillis;
+        this.operationTimeoutMillis = operationTimeoutMillis;
+        this.decryptedValues = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.requestExecutor = Executors.newFixedThreadPool(maxConcurrentRequests, new DaemonThreadFactory("jasypt-remote-request-"));
+        this.dispatcher = new DaemonThreadFactory("jasypt-remote-dispatcher-").newThread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch();
+            }
+        });
+        this.dispatcher.start();
+    }
+
+    @Override
+    public String encrypt(String message) {
+        PendingOperation operation = new PendingOperation(true, message);
+        enqueue(operation);
+        return await(operation);
+    }
+
+    @Override
+    public String decrypt(String encryptedMessage) {
+        String decrypted;
+        synchronized (decryptedValues) {
+            decrypted = decryptedValues.get(encryptedMessage);
+        }
+        if (decrypted != null) {
+            return decrypted;
+        }
+        return await(submitDecryption(encryptedMessage));
+    }
+
+    /**
+     * Queues the decryption of the given messages without waiting for the results, so that they travel in as few
+     * batches as possible and later calls to {@link #decrypt(String)} are answered locally.
+     */
+    public void prefetch(Collection<String> encryptedMessages) {
+        for (String encryptedMessage : encryptedMessages) {
+            boolean decrypted;
+            synchronized (decryptedValues) {
+                decrypted = decryptedValues.containsKey(encryptedMessage);
+            }
+            if (!decrypted) {
+                submitDecryption(encryptedMessage);
+            }
+        }
+    }
+
+    /**
+     * Decrypts all messages using as few round trips as possible.
+     */
+    public List<String> decryptAll(List<String> encryptedMessages) {
+        prefetch(encryptedMessages);
+        List<String> result = new ArrayList<String>(encryptedMessages.size());
+        for (String encryptedMessage : encryptedMessages) {
+            result.add(decrypt(encryptedMessage));
+        }
+        return result;
+    }
+
+    /**
+     * Stops the dispatcher and fails all operations still waiting for a response, whether queued or batched but not
+     * sent yet. Remembered values are forgotten.
+     */
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+        for (Runnable request : requestExecutor.shutdownNow()) {
+            fail(((Request) request).operations, shutDown());
+        }
+        failQueued();
+        synchronized (decryptedValues) {
+            decryptedValues.clear();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        shutdown();
+    }
+
+    private PendingOperation submitDecryption(String encryptedMessage) {
+        PendingOperation operation = new PendingOperation(false, encryptedMessage);
+        PendingOperation existing = pendingDecryptions.putIfAbsent(encryptedMessage, operation);
+        if (existing != null) {
+            return existing;
+        }
+        enqueue(operation);
+        return operation;
+    }
+
+    private void enqueue(PendingOperation operation) {
+        if (!running) {
+            throw shutDown();
+        }
+        queue.add(operation);
+        if (!running) {
+            // shutdown() may have drained the queue before the operation was added
+            failQueued();
+        }
+    }
+
+    private void failQueued() {
+        List<PendingOperation> remaining = new ArrayList<PendingOperation>();
+        queue.drainTo(remaining);
+        fail(remaining, shutDown());
+    }
+
+    private static DecryptionException shutDown() {
+        return new DecryptionException("Remote encryptor has been shut down");
+    }
+
+    private String await(PendingOperation operation) {
+        try {
+            if (!operation.latch.await(operationTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new DecryptionException(String.format("Timed out after %d ms waiting for remote encryptor at %s", operationTimeoutMillis, url));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DecryptionException("Interrupted while waiting for remote encryptor", e);
+        }
+        if (operation.error != null) {
+            throw operation.error;
+        }
+        return operation.result;
+    }
+
+    private void dispatch() {
+        while (running) {
+            List<PendingOperation> batch = new ArrayList<PendingOperation>(batchSize);
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOperation next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, shutDown());
+                return;
+            }
+            submit(batch);
+        }
+    }
+
+    private void submit(List<PendingOperation> batch) {
+        List<PendingOperation> encryptions = new ArrayList<PendingOperation>();
+        List<PendingOperation> decryptions = new ArrayList<PendingOperation>();
+        for (PendingOperation operation : batch) {
+            (operation.encrypt ? encryptions : decryptions).add(operation);
+        }
+        if (!encryptions.isEmpty()) {
+            execute(new Request(ENCRYPT_PATH, encryptions));
+        }
+        if (!decryptions.isEmpty()) {
+            execute(new Request(DECRYPT_PATH, decryptions));
+        }
+    }
+
+    private void execute(Request request) {
+        try {
+            requestExecutor.execute(request);
+        } catch (RejectedExecutionException e) {
+            fail(request.operations, shutDown());
+        }
+    }
+
+    private void send(String path, List<PendingOperation> operations) {
+        LOG.debug("Sending batch of {} values to {}{}", operations.size(), url, path);
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url + path).openConnection();
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "text/plain; charset=" + CHARSET);
+            byte[] body = encodeBody(operations);
+            connection.setFixedLengthStreamingMode(body.length);
+            OutputStream out = connection.getOutputStream();
+            try {
+                out.write(body);
+            } finally {
+                out.close();
+            }
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                drain(connection.getErrorStream());
+                fail(operations, new DecryptionException(String.format("Remote encryptor at %s responded with status %d", url, status)));
+                return;
+            }
+            complete(operations, connection.getInputStream());
+        } catch (IOException e) {
+            fail(operations, new DecryptionException(String.format("Remote encryptor at %s is not reachable", url), e));
+            if (connection != null) {
+                connection.disconnect();
+            }
+        } catch (RuntimeException e) {
+            fail(operations, e);
+        }
+    }
+
+    private void complete(List<PendingOperation> operations, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, CHARSET));
+        try {
+            for (PendingOperation operation : operations) {
+                String line = reader.readLine();
+                if (line == null || line.isEmpty()) {
+                    operation.fail(new DecryptionException("Remote encryptor response is missing values"));
+                } else if (line.charAt(0) == RESULT_PREFIX) {
+                    operation.complete(URLDecoder.decode(line.substring(1), CHARSET));
+                } else {
+                    operation.fail(new EncryptionOperationNotPossibleException(URLDecoder.decode(line.substring(1), CHARSET)));
+                }
+            }
+            // read to the end so the connection can be reused
+            while (reader.readLine() != null) {
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void fail(List<PendingOperation> operations, RuntimeException error) {
+        for (PendingOperation operation : operations) {
+            operation.fail(error);
+        }
+    }
+
+    private static byte[] encodeBody(List<PendingOperation> operations) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (PendingOperation operation : operations) {
+            body.append(URLEncoder.encode(operation.value, CHARSET)).append('\n');
+        }
+        return body.toString().getBytes(CHARSET);
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        if (in != null) {
+            try {
+                byte[] buffer = new byte[1024];
+                while (in.read(buffer) != -1) {
+                }
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    /**
+     * A batch handed to the request threads, kept as its own type so {@link #shutdown()} can fail the batches it
+     * takes back from the executor.
+     */
+    private class Request implements Runnable {
+        private final String path;
+        private final List<PendingOperation> operations;
+
+        private Request(String path, List<PendingOperation> operations) {
+            this.path = path;
+            this.operations = operations;
+        }
+
+        @Override
+        public void run() {
+            send(path, operations);
+        }
+    }
+
+    private class PendingOperation {
+        private final boolean encrypt;
+        private final String value;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile String result;
+        private volatile RuntimeException error;
+
+        private PendingOperation(boolean encrypt, String value) {
+            this.encrypt = encrypt;
+            this.value = value;
+        }
+
+        private void complete(String result) {
+            if (!encrypt) {
+                result = StringDeduplicator.deduplicate(result);
+            }
+            this.result = result;
+            if (!encrypt) {
+                synchronized (decryptedValues) {
+                    decryptedValues.put(value, result);
+                }
+                pendingDecryptions.remove(value, this);
+            }
+            latch.countDown();
+        }
+
+        private void fail(RuntimeException error) {
+            this.error = error;
+            if (!encrypt) {
+                pendingDecryptions.remove(value, this);
+            }
+            latch.countDown();
+        }
+    }
+
+    static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        private final String prefix;
+
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.springframework.util.Assert;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>String encryptor that holds a registry of named {@link StringEncryptor}s so that properties encrypted with different
+ * keys or algorithms can live side by side, for instance while migrating to a new algorithm.</p>
+ * <p>Encrypted properties select the encryptor with a marker in the form {@code ENC[name](...)}, so each value is
+ * decrypted exactly once by the right encryptor. Plain {@code ENC(...)} values, as well as {@link #encrypt(String)}
+ * calls, are handled by the default encryptor.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class RoutingStringEncryptor implements StringEncryptor {
+
+    private final StringEncryptor defaultEncryptor;
+    private final Map<String, StringEncryptor> encryptors;
+
+    public RoutingStringEncryptor(StringEncryptor defaultEncryptor, Map<String, StringEncryptor> encryptors) {
+        Assert.notNull(defaultEncryptor, "Default StringEncryptor cannot be null");
+        Assert.notNull(encryptors, "StringEncryptor registry cannot be null");
+        this.defaultEncryptor = defaultEncryptor;
+        this.encryptors = Collections.unmodifiableMap(new HashMap<String, StringEncryptor>(encryptors));
+    }
+
+    @Override
+    public String encrypt(String message) {
+        return defaultEncryptor.encrypt(message);
+    }
+
+    @Override
+    public String decrypt(String encryptedMessage) {
+        return defaultEncryptor.decrypt(encryptedMessage);
+    }
+
+    /**
+     * Encrypts the message with the encryptor registered under the given name.
+     */
+    public String encrypt(String name, String message) {
+        return getEncryptor(name).encrypt(message);
+    }
+
+    /**
+     * Decrypts the message with the encryptor registered under the given name.
+     */
+    public String decrypt(String name, String encryptedMessage) {
+        return getEncryptor(name).decrypt(encryptedMessage);
+    }
+
+    public StringEncryptor getEncryptor(String name) {
+        StringEncryptor encryptor = encryptors.get(name);
+        if (encryptor == null) {
+            throw new IllegalStateException(String.format("No StringEncryptor registered with name '%s'. Available: %s", name, encryptors.keySet()));
+        }
+        return encryptor;
+    }
+
+    public StringEncryptor getDefaultEncryptor() {
+        return defaultEncryptor;
+    }
+
+    public Map<String, StringEncryptor> getEncryptors() {
+        return encryptors;
+    }
+}
@@ -0,0 +1,204 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>JVM wide registry of encryptors, so that application contexts built with the same encryptor configuration, like
+ * those of Spring's test context cache, DevTools restarts or parent and child contexts, share one encryptor and decrypt
+ * each value only once.</p>
+ * <p>Encryptors are keyed by a {@link #fingerprint(Map) fingerprint} of their configuration: a SHA-256 digest salted
+ * with a random value generated once per JVM, so it can be logged without revealing the password, nor be brute forced
+ * offline. Each shared encryptor caches up to a maximum number of decrypted values, keyed by encrypted message, for as
+ * long as it is registered. Encryption is never cached, since every encryption uses a new random salt.</p>
+ * <p>Up to {@value #MAX_ENCRYPTORS} encryptors are registered, the least recently requested one being dropped first, so
+ * a JVM going through many configurations, like a test suite using many passwords, does not keep all of them and their
+ * decrypted values. Contexts already holding a dropped encryptor keep using it.</p>
+ * <p>Used by {@link LazyStringEncryptor} when {@code jasypt.encryptor.shared} is {@code true}.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public final class SharedEncryptorRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedEncryptorRegistry.class);
+
+    private static final byte[] FINGERPRINT_SALT = new byte[16];
+
+    static final int MAX_ENCRYPTORS = 32;
+
+    private static final Map<String, SharedStringEncryptor> ENCRYPTORS = new LinkedHashMap<String, SharedStringEncryptor>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SharedStringEncryptor> eldest) {
+            if (size() > MAX_ENCRYPTORS) {
+                LOG.info("Dropping least recently used shared StringEncryptor {}", eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    static {
+        new SecureRandom().nextBytes(FINGERPRINT_SALT);
+    }
+
+    private SharedEncryptorRegistry() {
+    }
+
+    /**
+     * Returns the shared encryptor for the given configuration, creating it with the factory when no context created it
+     * before.
+     *
+     * @param settings        encryptor configuration, the password included
+     * @param maxCachedValues maximum number of decrypted values cached, if the encryptor is created
+     */
+    public static SharedStringEncryptor getEncryptor(Map<String, String> settings, int maxCachedValues, Callable<StringEncryptor> factory) {
+        String fingerprint = fingerprint(settings);
+        synchronized (ENCRYPTORS) {
+            SharedStringEncryptor encryptor = ENCRYPTORS.get(fingerprint);
+            if (encryptor != null) {
+                LOG.debug("Reusing shared StringEncryptor {}", fingerprint);
+            } else {
+                try {
+                    encryptor = new SharedStringEncryptor(fingerprint, factory.call(), maxCachedValues);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not create StringEncryptor", e);
+                }
+                ENCRYPTORS.put(fingerprint, encryptor);
+                LOG.info("Created shared StringEncryptor {}", fingerprint);
+            }
+            return encryptor;
+        }
+    }
+
+    /**
+     * @return a hexadecimal SHA-256 digest of the settings, salted with a per JVM random value
+     */
+    public static String fingerprint(Map<String, String> settings) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(FINGERPRINT_SALT);
+            for (Map.Entry<String, String> setting : settings.entrySet()) {
+                digest.update(setting.getKey().getBytes("UTF-8"));
+                digest.update((byte) 0);
+                if (setting.getValue() != null) {
+                    digest.update(setting.getValue().getBytes("UTF-8"));
+                }
+                digest.update((byte) 0);
+            }
+            StringBuilder fingerprint = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                fingerprint.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return fingerprint.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Number of shared encryptors.
+     */
+    public static int size() {
+        synchronized (ENCRYPTORS) {
+            return ENCRYPTORS.size();
+        }
+    }
+
+    /**
+     * Forgets all shared encryptors and their decrypted values. Contexts already holding one keep using it.
+     */
+    public static void clear() {
+        synchronized (ENCRYPTORS) {
+            ENCRYPTORS.clear();
+        }
+    }
+
+    /**
+     * {@link StringEncryptor} shared across application contexts, caching decrypted values.
+     */
+    public static final class SharedStringEncryptor implements StringEncryptor {
+
+        private final String fingerprint;
+        private final StringEncryptor delegate;
+        private final int maxCachedValues;
+        private final ConcurrentMap<String, String> decrypted = new ConcurrentHashMap<String, String>();
+        private final AtomicInteger cachedValues = new AtomicInteger();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        private SharedStringEncryptor(String fingerprint, StringEncryptor delegate, int maxCachedValues) {
+            this.fingerprint = fingerprint;
+            this.delegate = delegate;
+            this.maxCachedValues = maxCachedValues;
+        }
+
+        @Override
+        public String encrypt(String message) {
+            return delegate.encrypt(message);
+        }
+
+        @Override
+        public String decrypt(String encryptedMessage) {
+            String message = decrypted.get(encryptedMessage);
+            if (message != null) {
+                hits.incrementAndGet();
+                return message;
+            }
+            misses.incrementAndGet();
+            message = delegate.decrypt(encryptedMessage);
+            if (message != null && cachedValues.get() < maxCachedValues) {
+                String existing = decrypted.putIfAbsent(encryptedMessage, message);
+                if (existing != null) {
+                    return existing;
+                }
+                cachedValues.incrementAndGet();
+            }
+            return message;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public StringEncryptor getDelegate() {
+            return delegate;
+        }
+
+        /**
+         * Number of decryptions answered from the cache.
+         */
+        public long getHits() {
+            return hits.get();
+        }
+
+        /**
+         * Number of decryptions delegated to the encryptor.
+         */
+        public long getMisses() {
+            return misses.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("SharedStringEncryptor[fingerprint=%s, cachedValues=%d, hits=%d, misses=%d]",
+                    fingerprint, cachedValues.get(), getHits(), getMisses());
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Resolves the {@link StringEncryptor} of a tenant, configured under {@code jasypt.encryptor.tenants.<id>.*} with
+ * the same properties as the default encryptor. Every property but the password falls back to its
+ * {@code jasypt.encryptor.*} value, so tenants usually only declare their password:</p>
+ * <pre>
+ *   jasypt.encryptor.tenants.acme.password=...
+ *   jasypt.encryptor.tenants.globex.password=...
+ *   jasypt.encryptor.tenants.globex.algorithm=PBEWITHSHA256AND128BITAES-CBC-BC
+ * </pre>
+ * <p>Encryptors are built on first use and kept in a bounded LRU cache, so thousands of tenants neither rebuild an
+ * encryptor per call nor keep all encryptors in memory. The cache is split in independently locked stripes, each
+ * evicting its own least recently used tenant, so the bound is approximate by at most the number of stripes.</p>
+ * <p>Encryptors leaving the cache, evicted or cleared, are destroyed once the operations in flight on them complete,
+ * which shuts down those backed by a remote key service. Operations started afterwards on an encryptor kept by a
+ * caller resolve the tenant's encryptor again.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class TenantStringEncryptorResolver implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TenantStringEncryptorResolver.class);
+
+    public static final String TENANTS_PREFIX = LazyStringEncryptor.DEFAULT_PREFIX + ".tenants.";
+
+    private static final int STRIPES = 16;
+
+    private final Environment environment;
+    private final int maxSize;
+    private final int stripeSize;
+    private final Map<String, TenantEncryptor>[] stripes;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TenantStringEncryptorResolver(Environment environment, int maxSize) {
+        Assert.notNull(environment, "Environment cannot be null");
+        Assert.isTrue(maxSize > 0, "Maximum size must be positive");
+        this.environment = environment;
+        this.maxSize = maxSize;
+        this.stripeSize = (maxSize + STRIPES - 1) / STRIPES;
+        this.stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new LinkedHashMap<String, TenantEncryptor>(16, 0.75f, true);
+        }
+    }
+
+    /**
+     * @return whether the tenant has an encryptor configured, through its password or remote service URL
+     * @throws IllegalArgumentException when the tenant id is not a valid property name segment
+     */
+    public boolean hasTenant(String tenantId) {
+        String prefix = prefix(tenantId);
+        return environment.containsProperty(prefix + ".password") || environment.containsProperty(prefix + ".remote.url");
+    }
+
+    /**
+     * Returns the cached encryptor of the tenant, creating it if needed. Creation is cheap, the encryptor reads its
+     * configuration on first use.
+     *
+     * @throws IllegalArgumentException when the tenant has no encryptor configured
+     */
+    public StringEncryptor getEncryptor(String tenantId) {
+        Map<String, TenantEncryptor> stripe = stripe(tenantId);
+        synchronized (stripe) {
+            TenantEncryptor encryptor = stripe.get(tenantId);
+            if (encryptor != null) {
+                return encryptor;
+            }
+        }
+        if (!hasTenant(tenantId)) {
+            throw new IllegalArgumentException(String.format("No StringEncryptor configured for tenant '%s', missing %s.password",
+                    tenantId, prefix(tenantId)));
+        }
+        TenantEncryptor encryptor = new TenantEncryptor(tenantId, new LazyStringEncryptor(environment, prefix(tenantId)));
+        TenantEncryptor eldest = null;
+        synchronized (stripe) {
+            TenantEncryptor existing = stripe.get(tenantId);
+            if (existing != null) {
+                return existing;
+            }
+            stripe.put(tenantId, encryptor);
+            if (stripe.size() > stripeSize) {
+                Iterator<TenantEncryptor> iterator = stripe.values().iterator();
+                eldest = iterator.next();
+                iterator.remove();
+            }
+        }
+        if (eldest != null) {
+            eldest.retire();
+        }
+        return encryptor;
+    }
+
+    /**
+     * Removes the tenant's encryptor from the cache and destroys it once its operations in flight complete, so that
+     * the next call rebuilds it, for instance after a password rotation.
+     */
+    public void evict(String tenantId) {
+        Map<String, TenantEncryptor> stripe = stripe(tenantId);
+        TenantEncryptor evicted;
+        synchronized (stripe) {
+            evicted = stripe.remove(tenantId);
+        }
+        if (evicted != null) {
+            evicted.retire();
+        }
+    }
+
+    /**
+     * Removes all cached encryptors and destroys them once their operations in flight complete.
+     */
+    public void clear() {
+        for (Map<String, TenantEncryptor> stripe : stripes) {
+            List<TenantEncryptor> evicted;
+            synchronized (stripe) {
+                evicted = new ArrayList<TenantEncryptor>(stripe.values());
+                stripe.clear();
+            }
+            for (TenantEncryptor encryptor : evicted) {
+                encryptor.retire();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        clear();
+    }
+
+    /**
+     * Number of cached encryptors.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, TenantEncryptor> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private Map<String, TenantEncryptor> stripe(String tenantId) {
+        Assert.notNull(tenantId, "Tenant id cannot be null");
+        int hash = tenantId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static String prefix(String tenantId) {
+        Assert.hasText(tenantId, "Tenant id cannot be empty");
+        Assert.isTrue(tenantId.indexOf('.') < 0, "Tenant id cannot contain '.'");
+        return TENANTS_PREFIX + tenantId;
+    }
+
+    /**
+     * Encryptor of a tenant, counting the operations in flight so that it is only destroyed once they complete.
+     */
+    final class TenantEncryptor implements StringEncryptor {
+        private final String tenantId;
+        private final LazyStringEncryptor delegate;
+        // operations in flight, plus one while cached, destroyed when it drops to zero
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private TenantEncryptor(String tenantId, LazyStringEncryptor delegate) {
+            this.tenantId = tenantId;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String encrypt(String message) {
+            if (!retain()) {
+                return getEncryptor(tenantId).encrypt(message);
+            }
+            try {
+                return delegate.encrypt(message);
+            } finally {
+                release();
+            }
+        }
+
+        @Override
+        public String decrypt(String encryptedMessage) {
+            if (!retain()) {
+                return getEncryptor(tenantId).decrypt(encryptedMessage);
+            }
+            try {
+                return delegate.decrypt(encryptedMessage);
+            } finally {
+                release();
+            }
+        }
+
+        boolean isDestroyed() {
+            return references.get() == 0;
+        }
+
+        /**
+         * Releases the reference of the cache, once removed from it.
+         */
+        private void retire() {
+            release();
+        }
+
+        private boolean retain() {
+            for (;;) {
+                int current = references.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                try {
+                    delegate.destroy();
+                } catch (Exception e) {
+                    LOG.warn("Could not destroy StringEncryptor of tenant '{}'", tenantId, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.jasypt.encryption.pbe.config.PBECleanablePasswordConfig;
+import org.jasypt.encryption.pbe.config.PBEConfig;
+import org.jasypt.encryption.pbe.config.StringPBEConfig;
+import org.jasypt.salt.SaltGenerator;
+import org.springframework.util.Assert;
+
+import java.security.Provider;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>{@link StringEncryptor} that gives every thread its own {@link StandardPBEStringEncryptor}, so cipher state is
+ * never shared and concurrent operations never wait on each other, unlike
+ * {@link org.jasypt.encryption.pbe.PooledPBEStringEncryptor} whose pool slots are locked for each operation. Results
+ * are interchangeable with those of any PBE encryptor with the same configuration.</p>
+ * <p>Each thread pays for initializing its encryptor on first use, so it is meant for long lived thread pools, like
+ * request threads encrypting tokens or fields at runtime. Pair it with a non blocking salt generator such as
+ * {@link com.ulisesbocchio.jasyptspringboot.salt.ThreadLocalRandomSaltGenerator}, since a single salt generator
+ * instance is shared by all threads.</p>
+ * <p>The configuration is read once on construction. Jasypt clears a config password as soon as an encryptor is
+ * initialized with it, so the password is kept in memory to initialize the encryptors of threads yet to come.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class ThreadLocalPBEStringEncryptor implements StringEncryptor {
+
+    private final ThreadLocal<StandardPBEStringEncryptor> encryptor;
+
+    public ThreadLocalPBEStringEncryptor(PBEConfig config) {
+        Assert.notNull(config, "PBEConfig cannot be null");
+        final String algorithm = config.getAlgorithm();
+        final char[] password = config instanceof PBECleanablePasswordConfig
+                ? ((PBECleanablePasswordConfig) config).getPasswordCharArray().clone()
+                : config.getPassword() != null ? config.getPassword().toCharArray() : null;
+        final Integer keyObtentionIterations = config.getKeyObtentionIterations();
+        final SaltGenerator saltGenerator = config.getSaltGenerator();
+        final String providerName = config.getProviderName();
+        final Provider provider = config.getProvider();
+        final String stringOutputType = config instanceof StringPBEConfig ? ((StringPBEConfig) config).getStringOutputType() : null;
+        this.encryptor = new ThreadLocal<StandardPBEStringEncryptor>() {
+            @Override
+            protected StandardPBEStringEncryptor initialValue() {
+                StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+                if (algorithm != null) {
+                    encryptor.setAlgorithm(algorithm);
+                }
+                if (password != null) {
+                    encryptor.setPasswordCharArray(password);
+                }
+                if (keyObtentionIterations != null) {
+                    encryptor.setKeyObtentionIterations(keyObtentionIterations);
+                }
+                if (saltGenerator != null) {
+                    encryptor.setSaltGenerator(saltGenerator);
+                }
+                if (providerName != null) {
+                    encryptor.setProviderName(providerName);
+                }
+                if (provider != null) {
+                    encryptor.setProvider(provider);
+                }
+                if (stringOutputType != null) {
+                    encryptor.setStringOutputType(stringOutputType);
+                }
+                encryptor.initialize();
+                return encryptor;
+            }
+        };
+        // fail fast on invalid configuration
+        this.encryptor.get();
+    }
+
+    @Override
+    public String encrypt(String message) {
+        return encryptor.get().encrypt(message);
+    }
+
+    @Override
+    public String decrypt(String encryptedMessage) {
+        return encryptor.get().decrypt(encryptedMessage);
+    }
+
+    /**
+     * Encrypts all messages on the calling thread's encryptor, keeping their order.
+     */
+    public List<String> encryptAll(Collection<String> messages) {
+        StandardPBEStringEncryptor threadEncryptor = encryptor.get();
+        List<String> encrypted = new ArrayList<String>(messages.size());
+        for (String message : messages) {
+            encrypted.add(threadEncryptor.encrypt(message));
+        }
+        return encrypted;
+    }
+
+    /**
+     * Decrypts all messages on the calling thread's encryptor, keeping their order.
+     */
+    public List<String> decryptAll(Collection<String> encryptedMessages) {
+        StandardPBEStringEncryptor threadEncryptor = encryptor.get();
+        List<String> decrypted = new ArrayList<String>(encryptedMessages.size());
+        for (String encryptedMessage : encryptedMessages) {
+            decrypted.add(threadEncryptor.decrypt(encryptedMessage));
+        }
+        return decrypted;
+    }
+}
@@ -1,8 +1,9 @@
 package com.ulisesbocchio.jasyptspringboot.environment;
 
+import com.ulisesbocchio.jasyptspringboot.Helper;
 import com.ulisesbocchio.jasyptspringboot.encryptor.LazyStringEncryptor;
+import com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessListeners;
 import org.jasypt.encryption.StringEncryptor;
-import org.jasypt.properties.PropertyValueEncryptionUtils;
 import org.springframework.core.convert.support.ConfigurableConversionService;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.MissingRequiredPropertiesException;
@@ -125,37 +126,43 @@ public class EncryptableEnvironment implements ConfigurableEnvironment {
 
     @Override
     public String getProperty(String key) {
-        return maybeDecrypt(delegate.getProperty(key));
+        return maybeDecrypt(key, delegate.getProperty(key));
     }
 
-    private String maybeDecrypt(String property) {
-        if (PropertyValueEncryptionUtils.isEncryptedValue(property)) {
-            return PropertyValueEncryptionUtils.decrypt(property, encryptor);
+    private String maybeDecrypt(String key, String property) {
+        boolean encrypted = Helper.isEncryptedValue(property, encryptor);
+        if (property != null && !PropertyAccessListeners.isEmpty()) {
+            PropertyAccessListeners.propertyRead(null, key, encrypted);
+        }
+        if (encrypted) {
+            return Helper.decrypt(encryptor, property, null, key);
+        }
+        return property;
+    }
+
+    private <T> T maybeDecrypt(String key, T property, Class<T> targetType) {
+        if (property != null && targetType == String.class) {
+            return (T) maybeDecrypt(key, (String) property);
+        }
+        if (property != null && !PropertyAccessListeners.isEmpty()) {
+            PropertyAccessListeners.propertyRead(null, key, false);
         }
         return property;
     }
 
     @Override
     public String getProperty(String key, String defaultValue) {
-        return maybeDecrypt(delegate.getProperty(key, defaultValue));
+        return maybeDecrypt(key, delegate.getProperty(key, defaultValue));
     }
 
     @Override
     public <T> T getProperty(String key, Class<T> targetType) {
-        T property = delegate.getProperty(key, targetType);
-        if (property != null && targetType == String.class) {
-            property = (T) maybeDecrypt((String) property);
-        }
-        return property;
+        return maybeDecrypt(key, delegate.getProperty(key, targetType), targetType);
     }
 
     @Override
     public <T> T getProperty(String key, Class<T> targetType, T defaultValue) {
-        T property = delegate.getProperty(key, targetType, defaultValue);
-        if (property != null && targetType == String.class) {
-            property = (T) maybeDecrypt((String) property);
-        }
-        return property;
+        return maybeDecrypt(key, delegate.getProperty(key, targetType, defaultValue), targetType);
     }
 
     @Override
@@ -165,16 +172,12 @@ public class EncryptableEnvironment implements ConfigurableEnvironment {
 
     @Override
     public String getRequiredProperty(String key) throws IllegalStateException {
-        return maybeDecrypt(delegate.getRequiredProperty(key));
+        return maybeDecrypt(key, delegate.getRequiredProperty(key));
     }
 
     @Override
     public <T> T getRequiredProperty(String key, Class<T> targetType) throws IllegalStateException {
-        T property = delegate.getRequiredProperty(key, targetType);
-        if (property != null && targetType == String.class) {
-            property = (T) maybeDecrypt((String) property);
-        }
-        return property;
+        return maybeDecrypt(key, delegate.getRequiredProperty(key, targetType), targetType);
     }
 
     @Override
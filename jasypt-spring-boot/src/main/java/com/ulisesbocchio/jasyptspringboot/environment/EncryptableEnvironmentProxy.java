@@ -3,6 +3,7 @@ package com.ulisesbocchio.jasyptspringboot.environment;
 import com.ulisesbocchio.jasyptspringboot.EncryptablePropertySource;
 import com.ulisesbocchio.jasyptspringboot.InterceptionMode;
 import com.ulisesbocchio.jasyptspringboot.encryptor.LazyStringEncryptor;
+import com.ulisesbocchio.jasyptspringboot.observation.FlightRecorderEvents;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.jasypt.encryption.StringEncryptor;
@@ -16,6 +17,7 @@ import org.springframework.core.env.*;
 import java.util.Map;
 
 import static com.ulisesbocchio.jasyptspringboot.EncryptablePropertySourceConverter.instantiatePropertySource;
+import static com.ulisesbocchio.jasyptspringboot.EncryptablePropertySourceConverter.isEncryptionRequired;
 import static com.ulisesbocchio.jasyptspringboot.EncryptablePropertySourceConverter.proxyPropertySource;
 
 /**
@@ -46,7 +48,9 @@ public class EncryptableEnvironmentProxy implements ConfigurableEnvironment {
         for (final PropertySource<?> propertySource : propertySources) {
             if (!(propertySource instanceof EncryptablePropertySource)) {
                 PropertySource<?> encryptable = makeEncryptable(propertySource, environment, encryptor);
-                propertySources.replace(encryptable.getName(), encryptable);
+                if (encryptable != propertySource) {
+                    propertySources.replace(encryptable.getName(), encryptable);
+                }
             }
         }
         return proxy(propertySources, environment, encryptor);
@@ -67,8 +71,18 @@ public class EncryptableEnvironmentProxy implements ConfigurableEnvironment {
     }
 
     private <T> PropertySource<T> makeEncryptable(PropertySource<T> propertySource, Environment environment, StringEncryptor encryptor) {
-        PropertySource<T> encryptablePropertySource = getInterceptionMode(environment) == InterceptionMode.PROXY
+        if (propertySource instanceof EncryptablePropertySource) {
+            return propertySource;
+        }
+        if (!isEncryptionRequired(propertySource, environment, encryptor)) {
+            LOG.info("Skipping PropertySource {} [{}], no encrypted values found", propertySource.getName(), propertySource.getClass().getName());
+            return propertySource;
+        }
+        InterceptionMode interceptionMode = getInterceptionMode(environment);
+        Object event = FlightRecorderEvents.beginPropertySourceConversion();
+        PropertySource<T> encryptablePropertySource = interceptionMode == InterceptionMode.PROXY
                 ? proxyPropertySource(propertySource, encryptor) : instantiatePropertySource(propertySource, encryptor);
+        FlightRecorderEvents.endPropertySourceConversion(event, propertySource.getName(), propertySource.getClass().getName(), interceptionMode.name());
         LOG.info("Converting PropertySource {} [{}] to {}", propertySource.getName(), propertySource.getClass().getName(),
                 AopUtils.isAopProxy(encryptablePropertySource) ? "AOP Proxy" : encryptablePropertySource.getClass().getSimpleName());
         return encryptablePropertySource;
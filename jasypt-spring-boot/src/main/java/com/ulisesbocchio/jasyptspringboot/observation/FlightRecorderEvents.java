@@ -0,0 +1,110 @@
+package com.ulisesbocchio.jasyptspringboot.observation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Emits JDK Flight Recorder events for decryptions, encryptor initialization and property source conversion, so
+ * that Jasypt work shows up in JFR recordings as something other than anonymous CPU samples. Property values are never
+ * recorded.</p>
+ * <p>Events are only emitted when the running JVM ships the {@code jdk.jfr} API, which is Java 8u262 and later. On
+ * older JVMs every call is a no-op and no JFR class is loaded, so the Java 1.6 baseline is unaffected. Building requires
+ * JDK 8u262 or a later JDK 8 update, since {@link JfrRecorder} compiles against {@code jdk.jfr}. Events can be
+ * disabled altogether with the {@code jasypt.encryptor.jfr.enabled=false} system property. Within a recording they
+ * are enabled by default and can be configured as {@code jasypt.Decryption}, {@code jasypt.EncryptorInitialization}
+ * and {@code jasypt.PropertySourceConversion}.</p>
+ * <p>Usage follows the JFR event life cycle:</p>
+ * <pre>
+ *   Object event = FlightRecorderEvents.beginDecryption();
+ *   ...
+ *   FlightRecorderEvents.endDecryption(event, sourceName, propertyName, algorithm);
+ * </pre>
+ *
+ * @author Ulises Bocchio
+ */
+public final class FlightRecorderEvents {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlightRecorderEvents.class);
+
+    private static final Recorder RECORDER = createRecorder();
+
+    private FlightRecorderEvents() {
+    }
+
+    public static boolean isAvailable() {
+        return RECORDER != null;
+    }
+
+    /**
+     * @return the started event, or {@code null} when events are not available
+     */
+    public static Object beginDecryption() {
+        return RECORDER != null ? RECORDER.beginDecryption() : null;
+    }
+
+    public static void endDecryption(Object event, String sourceName, String propertyName, String algorithm) {
+        if (event != null) {
+            RECORDER.endDecryption(event, sourceName, propertyName, algorithm);
+        }
+    }
+
+    /**
+     * @return the started event, or {@code null} when events are not available
+     */
+    public static Object beginEncryptorInitialization() {
+        return RECORDER != null ? RECORDER.beginEncryptorInitialization() : null;
+    }
+
+    public static void endEncryptorInitialization(Object event, String encryptorType, String algorithm) {
+        if (event != null) {
+            RECORDER.endEncryptorInitialization(event, encryptorType, algorithm);
+        }
+    }
+
+    /**
+     * @return the started event, or {@code null} when events are not available
+     */
+    public static Object beginPropertySourceConversion() {
+        return RECORDER != null ? RECORDER.beginPropertySourceConversion() : null;
+    }
+
+    public static void endPropertySourceConversion(Object event, String sourceName, String sourceType, String interceptionMode) {
+        if (event != null) {
+            RECORDER.endPropertySourceConversion(event, sourceName, sourceType, interceptionMode);
+        }
+    }
+
+    private static Recorder createRecorder() {
+        if (!Boolean.parseBoolean(System.getProperty("jasypt.encryptor.jfr.enabled", "true"))) {
+            return null;
+        }
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        try {
+            return (Recorder) Class.forName(FlightRecorderEvents.class.getPackage().getName() + ".JfrRecorder").getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            LOG.debug("JDK Flight Recorder events not available", e);
+            return null;
+        }
+    }
+
+    /**
+     * Implemented by {@link JfrRecorder}, which is the only class referencing the {@code jdk.jfr} API.
+     */
+    interface Recorder {
+        Object beginDecryption();
+
+        void endDecryption(Object event, String sourceName, String propertyName, String algorithm);
+
+        Object beginEncryptorInitialization();
+
+        void endEncryptorInitialization(Object event, String encryptorType, String algorithm);
+
+        Object beginPropertySourceConversion();
+
+        void endPropertySourceConversion(Object event, String sourceName, String sourceType, String interceptionMode);
+    }
+}
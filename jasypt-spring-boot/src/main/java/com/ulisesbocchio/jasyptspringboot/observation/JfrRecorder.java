@@ -0,0 +1,126 @@
+package com.ulisesbocchio.jasyptspringboot.observation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * {@link FlightRecorderEvents.Recorder} backed by the {@code jdk.jfr} API. Only loaded reflectively when that API is
+ * present.
+ *
+ * @author Ulises Bocchio
+ */
+class JfrRecorder implements FlightRecorderEvents.Recorder {
+
+    @Override
+    public Object beginDecryption() {
+        DecryptionEvent event = new DecryptionEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endDecryption(Object event, String sourceName, String propertyName, String algorithm) {
+        DecryptionEvent decryptionEvent = (DecryptionEvent) event;
+        decryptionEvent.end();
+        if (decryptionEvent.shouldCommit()) {
+            decryptionEvent.propertySource = sourceName;
+            decryptionEvent.propertyName = propertyName;
+            decryptionEvent.algorithm = algorithm;
+            decryptionEvent.commit();
+        }
+    }
+
+    @Override
+    public Object beginEncryptorInitialization() {
+        EncryptorInitializationEvent event = new EncryptorInitializationEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endEncryptorInitialization(Object event, String encryptorType, String algorithm) {
+        EncryptorInitializationEvent initializationEvent = (EncryptorInitializationEvent) event;
+        initializationEvent.end();
+        if (initializationEvent.shouldCommit()) {
+            initializationEvent.encryptorType = encryptorType;
+            initializationEvent.algorithm = algorithm;
+            initializationEvent.commit();
+        }
+    }
+
+    @Override
+    public Object beginPropertySourceConversion() {
+        PropertySourceConversionEvent event = new PropertySourceConversionEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endPropertySourceConversion(Object event, String sourceName, String sourceType, String interceptionMode) {
+        PropertySourceConversionEvent conversionEvent = (PropertySourceConversionEvent) event;
+        conversionEvent.end();
+        if (conversionEvent.shouldCommit()) {
+            conversionEvent.propertySource = sourceName;
+            conversionEvent.propertySourceType = sourceType;
+            conversionEvent.interceptionMode = interceptionMode;
+            conversionEvent.commit();
+        }
+    }
+
+    @Name("jasypt.Decryption")
+    @Label("Property Decryption")
+    @Description("Decryption of an encrypted property value")
+    @Category("Jasypt")
+    @StackTrace(false)
+    static class DecryptionEvent extends Event {
+        @Label("Property Source")
+        String propertySource;
+
+        @Label("Property Name")
+        String propertyName;
+
+        @Label("Algorithm")
+        String algorithm;
+    }
+
+    @Name("jasypt.EncryptorInitialization")
+    @Label("Encryptor Initialization")
+    @Description("Configuration of the lazily initialized StringEncryptor")
+    @Category("Jasypt")
+    static class EncryptorInitializationEvent extends Event {
+        @Label("Encryptor Type")
+        String encryptorType;
+
+        @Label("Algorithm")
+        String algorithm;
+    }
+
+    @Name("jasypt.PropertySourceConversion")
+    @Label("Property Source Conversion")
+    @Description("Wrapping or proxying of a PropertySource to decrypt its properties")
+    @Category("Jasypt")
+    @StackTrace(false)
+    static class PropertySourceConversionEvent extends Event {
+        @Label("Property Source")
+        String propertySource;
+
+        @Label("Property Source Type")
+        String propertySourceType;
+
+        @Label("Interception Mode")
+        String interceptionMode;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ulisesbocchio.jasyptspringboot.observation;
+
+/**
+ * Callback notified on every property read served by the encryptable property sources and by
+ * {@link com.ulisesbocchio.jasyptspringboot.environment.EncryptableEnvironment}. Listeners are invoked synchronously
+ * on the reading thread, so implementations must be thread safe, cheap, and must not throw.
+ *
+ * @author Ulises Bocchio
+ * @see PropertyAccessListeners
+ */
+public interface PropertyAccessListener {
+
+    /**
+     * @param sourceName   name of the property source that served the value, or {@code null} when unknown
+     * @param propertyName name of the property read
+     * @param encrypted    whether the raw value was encrypted and had to be decrypted
+     */
+    void propertyRead(String sourceName, String propertyName, boolean encrypted);
+}
@@ -0,0 +1,49 @@
+package com.ulisesbocchio.jasyptspringboot.observation;
+
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>JVM wide registry of {@link PropertyAccessListener} instances. Property sources are created before the
+ * application context exists, so listeners are registered here rather than injected.</p>
+ * <p>Reads pay a single volatile read when no listener is registered.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public final class PropertyAccessListeners {
+
+    private static final PropertyAccessListener[] NONE = new PropertyAccessListener[0];
+
+    private static volatile PropertyAccessListener[] listeners = NONE;
+
+    private PropertyAccessListeners() {
+    }
+
+    public static synchronized void register(PropertyAccessListener listener) {
+        Assert.notNull(listener, "PropertyAccessListener cannot be null");
+        PropertyAccessListener[] current = listeners;
+        PropertyAccessListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    public static synchronized void unregister(PropertyAccessListener listener) {
+        List<PropertyAccessListener> updated = new ArrayList<PropertyAccessListener>(Arrays.asList(listeners));
+        if (updated.remove(listener)) {
+            listeners = updated.isEmpty() ? NONE : updated.toArray(new PropertyAccessListener[updated.size()]);
+        }
+    }
+
+    public static boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    public static void propertyRead(String sourceName, String propertyName, boolean encrypted) {
+        for (PropertyAccessListener listener : listeners) {
+            listener.propertyRead(sourceName, propertyName, encrypted);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.ulisesbocchio.jasyptspringboot.observation;
+
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>{@link PropertyAccessListener} that keeps track of the most read properties, to find configuration reads that
+ * happen in hot paths and should be hoisted out of them.</p>
+ * <p>Counting uses the Space-Saving algorithm, with counters grouped in buckets of equal count so that every read,
+ * eviction included, takes constant time. Memory is bounded by {@code capacity} regardless of the number of distinct
+ * keys read: every key read more than {@code total reads / capacity} times is guaranteed to be tracked, and
+ * each reported count overestimates the real one by at most {@link KeyStatistics#getError()}. Keys are spread over
+ * independently locked stripes to keep contention low when read from many threads.</p>
+ * <p>Usage:</p>
+ * <pre>
+ *   PropertyAccessProfiler profiler = new PropertyAccessProfiler(256).start();
+ *   ...
+ *   for (PropertyAccessProfiler.KeyStatistics statistics : profiler.getTopKeys(20)) {
+ *       ...
+ *   }
+ * </pre>
+ * <p>In Spring applications it is registered as a bean when {@code jasypt.encryptor.profiler.enabled} is
+ * {@code true}.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class PropertyAccessProfiler implements PropertyAccessListener {
+
+    private static final String UNKNOWN_SOURCE = "<unknown>";
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public PropertyAccessProfiler(int capacity) {
+        Assert.isTrue(capacity > 0, "Profiler capacity must be greater than 0");
+        int stripeCount = Math.min(Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())) * 2, 16);
+        while (stripeCount > 1 && capacity / stripeCount < 8) {
+            stripeCount >>= 1;
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe((capacity + stripeCount - 1) / stripeCount);
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    /**
+     * Registers this profiler with {@link PropertyAccessListeners}.
+     */
+    public PropertyAccessProfiler start() {
+        PropertyAccessListeners.register(this);
+        return this;
+    }
+
+    /**
+     * Unregisters this profiler from {@link PropertyAccessListeners}, keeping the counts collected so far.
+     */
+    public void stop() {
+        PropertyAccessListeners.unregister(this);
+    }
+
+    @Override
+    public void propertyRead(String sourceName, String propertyName, boolean encrypted) {
+        int hash = propertyName.hashCode();
+        stripes[(hash ^ (hash >>> 16)) & mask].record(propertyName, sourceName != null ? sourceName : UNKNOWN_SOURCE, encrypted);
+    }
+
+    /**
+     * Returns the most read keys, most read first.
+     *
+     * @param limit maximum number of keys returned
+     */
+    public List<KeyStatistics> getTopKeys(int limit) {
+        List<KeyStatistics> keys = new ArrayList<KeyStatistics>();
+        for (Stripe stripe : stripes) {
+            stripe.snapshot(keys);
+        }
+        Collections.sort(keys, new Comparator<KeyStatistics>() {
+            @Override
+            public int compare(KeyStatistics left, KeyStatistics right) {
+                return left.count < right.count ? 1 : left.count > right.count ? -1 : left.key.compareTo(right.key);
+            }
+        });
+        return keys.size() > limit ? new ArrayList<KeyStatistics>(keys.subList(0, limit)) : keys;
+    }
+
+    /**
+     * Total number of reads observed, including those of keys no longer tracked.
+     */
+    public long getTotalReads() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.total();
+        }
+        return total;
+    }
+
+    public void reset() {
+        for (Stripe stripe : stripes) {
+            stripe.reset();
+        }
+    }
+
+    /**
+     * Formats the top keys as a table, one key per line.
+     */
+    public String report(int limit) {
+        StringBuilder report = new StringBuilder(String.format("Property reads: %d%n", getTotalReads()));
+        report.append(String.format("%10s %10s %10s %8s  %s%n", "reads", "encrypted", "plain", "error", "key [reads by source]"));
+        for (KeyStatistics statistics : getTopKeys(limit)) {
+            report.append(String.format("%10d %10d %10d %8d  %s %s%n", statistics.getCount(), statistics.getEncryptedCount(),
+                    statistics.getPlainCount(), statistics.getError(), statistics.getKey(), statistics.getCountsBySource()));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report(20);
+    }
+
+    /**
+     * Read statistics of a single key. The encrypted, plain and per source counts cover the reads observed since the
+     * key was last admitted into the profiler, and add up to {@code count - error}.
+     */
+    public static class KeyStatistics {
+        private final String key;
+        private final long count;
+        private final long error;
+        private final long encryptedCount;
+        private final Map<String, Long> countsBySource;
+
+        KeyStatistics(String key, long count, long error, long encryptedCount, Map<String, Long> countsBySource) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.encryptedCount = encryptedCount;
+            this.countsBySource = Collections.unmodifiableMap(countsBySource);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Upper bound for the number of reads of this key.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Maximum overestimation of {@link #getCount()}.
+         */
+        public long getError() {
+            return error;
+        }
+
+        public long getEncryptedCount() {
+            return encryptedCount;
+        }
+
+        public long getPlainCount() {
+            return count - error - encryptedCount;
+        }
+
+        public Map<String, Long> getCountsBySource() {
+            return countsBySource;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + count;
+        }
+    }
+
+    private static class Stripe {
+        private final int capacity;
+        private final Map<String, Counter> counters;
+        // counters grouped by count, in ascending order, so the least counted key is always in the first bucket
+        private Bucket lowest;
+        private long total;
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+            this.counters = new HashMap<String, Counter>(capacity * 2);
+        }
+
+        private synchronized void record(String key, String sourceName, boolean encrypted) {
+            total++;
+            Counter counter = counters.get(key);
+            if (counter == null) {
+                counter = admit(key);
+            }
+            increment(counter);
+            if (encrypted) {
+                counter.encrypted++;
+            }
+            long[] sourceCount = counter.sources.get(sourceName);
+            if (sourceCount == null) {
+                sourceCount = new long[1];
+                counter.sources.put(sourceName, sourceCount);
+            }
+            sourceCount[0]++;
+        }
+
+        /**
+         * Space-Saving admission: when full, the least counted key is replaced and its count inherited as error. The
+         * new counter takes the evicted one's place in the lowest bucket, or a new zero bucket.
+         */
+        private Counter admit(String key) {
+            Counter counter;
+            if (counters.size() >= capacity) {
+                Counter min = lowest.first;
+                counters.remove(min.key);
+                lowest.remove(min);
+                counter = new Counter(key, min.count);
+            } else {
+                counter = new Counter(key, 0);
+                if (lowest == null || lowest.count != 0) {
+                    insertAfter(null, new Bucket(0));
+                }
+            }
+            lowest.add(counter);
+            counters.put(key, counter);
+            return counter;
+        }
+
+        /**
+         * Moves the counter to the bucket of its incremented count, in constant time.
+         */
+        private void increment(Counter counter) {
+            Bucket bucket = counter.bucket;
+            long count = ++counter.count;
+            Bucket next = bucket.next;
+            if (next == null || next.count != count) {
+                if (bucket.first == counter && counter.next == null) {
+                    // only counter of its bucket, which keeps its place in the order
+                    bucket.count = count;
+                    return;
+                }
+                next = insertAfter(bucket, new Bucket(count));
+            }
+            bucket.remove(counter);
+            if (bucket.first == null) {
+                unlink(bucket);
+            }
+            next.add(counter);
+        }
+
+        private Bucket insertAfter(Bucket previous, Bucket bucket) {
+            Bucket next = previous != null ? previous.next : lowest;
+            bucket.prev = previous;
+            bucket.next = next;
+            if (next != null) {
+                next.prev = bucket;
+            }
+            if (previous != null) {
+                previous.next = bucket;
+            } else {
+                lowest = bucket;
+            }
+            return bucket;
+        }
+
+        private void unlink(Bucket bucket) {
+            if (bucket.prev != null) {
+                bucket.prev.next = bucket.next;
+            } else {
+                lowest = bucket.next;
+            }
+            if (bucket.next != null) {
+                bucket.next.prev = bucket.prev;
+            }
+        }
+
+        private synchronized void snapshot(List<KeyStatistics> keys) {
+            for (Counter counter : counters.values()) {
+                Map<String, Long> bySource = new LinkedHashMap<String, Long>();
+                for (Map.Entry<String, long[]> source : counter.sources.entrySet()) {
+                    bySource.put(source.getKey(), source.getValue()[0]);
+                }
+                keys.add(new KeyStatistics(counter.key, counter.count, counter.error, counter.encrypted, bySource));
+            }
+        }
+
+        private synchronized long total() {
+            return total;
+        }
+
+        private synchronized void reset() {
+            counters.clear();
+            lowest = null;
+            total = 0;
+        }
+    }
+
+    /**
+     * Counters sharing the same count, in a doubly linked list.
+     */
+    private static class Bucket {
+        private long count;
+        private Bucket prev;
+        private Bucket next;
+        private Counter first;
+
+        private Bucket(long count) {
+            this.count = count;
+        }
+
+        private void add(Counter counter) {
+            counter.bucket = this;
+            counter.prev = null;
+            counter.next = first;
+            if (first != null) {
+                first.prev = counter;
+            }
+            first = counter;
+        }
+
+        private void remove(Counter counter) {
+            if (counter.prev != null) {
+                counter.prev.next = counter.next;
+            } else {
+                first = counter.next;
+            }
+            if (counter.next != null) {
+                counter.next.prev = counter.prev;
+            }
+            counter.bucket = null;
+            counter.prev = null;
+            counter.next = null;
+        }
+    }
+
+    private static class Counter {
+        private final String key;
+        private final long error;
+        private long count;
+        private long encrypted;
+        private final Map<String, long[]> sources = new LinkedHashMap<String, long[]>(4);
+        private Bucket bucket;
+        private Counter prev;
+        private Counter next;
+
+        private Counter(String key, long error) {
+            this.key = key;
+            this.error = error;
+            this.count = error;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.ulisesbocchio.jasyptspringboot.observation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.util.Assert;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>{@link PropertyAccessListener} that records the sequence of property reads to a tab separated file, to replay
+ * the way an application actually reads its configuration against other configurations, see the
+ * {@code PropertyTraceReplayHarness} of the benchmarks module. Each read is recorded with its time since the recording
+ * started, in nanoseconds, the reading thread, the property source that served it, the property name and whether it
+ * was encrypted. Values are never recorded.</p>
+ * <p>Reads are queued and written by a background daemon thread, so readers never wait on the file. Up to
+ * {@value #MAX_PENDING} reads are queued, reads beyond that are dropped and counted.</p>
+ * <p>Enabled JVM wide with {@code jasypt.encryptor.recorder.enabled=true}, recording to
+ * {@code jasypt.encryptor.recorder.file}, by default {@value #DEFAULT_FILE} in the working directory, from the moment
+ * property sources are made encryptable until the last application context enabling it is closed, or the JVM
+ * exits.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class PropertyAccessRecorder implements PropertyAccessListener {
+
+    public static final String DEFAULT_FILE = "jasypt-property-access.tsv";
+
+    public static final String HEADER = "#nanos\tthreadId\tthread\tsource\tproperty\tencrypted";
+
+    static final int MAX_PENDING = 100000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(PropertyAccessRecorder.class);
+
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private static PropertyAccessRecorder recorder;
+
+    private static Thread shutdownHook;
+
+    private static int references;
+
+    private final File file;
+    private final Queue<Access> pending = new ConcurrentLinkedQueue<Access>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private Writer writer;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public PropertyAccessRecorder(File file) {
+        Assert.notNull(file, "Trace file cannot be null");
+        this.file = file;
+    }
+
+    /**
+     * Starts recording to {@code jasypt.encryptor.recorder.file} when {@code jasypt.encryptor.recorder.enabled} is
+     * {@code true}, or keeps recording to the file of a previous call. Recording stops once every call was
+     * {@link #release() released}, or when the JVM exits.
+     *
+     * @return whether recording was enabled, in which case {@link #release()} must be called once it is no longer
+     * needed
+     */
+    public static synchronized boolean retain(Environment environment) {
+        if (!environment.getProperty("jasypt.encryptor.recorder.enabled", Boolean.TYPE, false)) {
+            return false;
+        }
+        if (recorder == null) {
+            final PropertyAccessRecorder started = new PropertyAccessRecorder(
+                    new File(environment.getProperty("jasypt.encryptor.recorder.file", DEFAULT_FILE))).start();
+            shutdownHook = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    started.stop();
+                }
+            }, "jasypt-recorder-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+            recorder = started;
+        }
+        references++;
+        return true;
+    }
+
+    /**
+     * Releases a call to {@link #retain(Environment)}, stopping the recording after the last one.
+     */
+    public static synchronized void release() {
+        if (references > 0 && --references == 0) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // the JVM is exiting, the hook stops the recording
+            }
+            recorder.stop();
+            recorder = null;
+            shutdownHook = null;
+        }
+    }
+
+    /**
+     * Opens the file, overwriting it, and registers this recorder with {@link PropertyAccessListeners}.
+     *
+     * @throws IllegalStateException if the file cannot be opened
+     */
+    public synchronized PropertyAccessRecorder start() {
+        Assert.state(!running, "Recorder already started");
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+            writer.write(HEADER);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open property access trace " + file, e);
+        }
+        running = true;
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (running) {
+                    write();
+                    try {
+                        Thread.sleep(FLUSH_INTERVAL_MILLIS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }, "jasypt-recorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        PropertyAccessListeners.register(this);
+        LOG.info("Recording property reads to {}", file.getAbsolutePath());
+        return this;
+    }
+
+    /**
+     * Unregisters this recorder, writes the reads still queued and closes the file.
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            PropertyAccessListeners.unregister(this);
+            running = false;
+            thread = writerThread;
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            write();
+            close();
+        }
+        LOG.info("Recorded {} property reads to {}{}", recorded.get(), file.getAbsolutePath(),
+                dropped.get() > 0 ? ", dropped " + dropped.get() : "");
+    }
+
+    @Override
+    public void propertyRead(String sourceName, String propertyName, boolean encrypted) {
+        if (pendingCount.incrementAndGet() > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        pending.add(new Access(System.nanoTime() - startNanos, thread.getId(), thread.getName(), sourceName, propertyName, encrypted));
+    }
+
+    /**
+     * Number of reads written so far.
+     */
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    /**
+     * Number of reads dropped because too many were queued.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private synchronized void write() {
+        try {
+            Access access;
+            boolean written = false;
+            while ((access = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                writer.write(access.toLine());
+                writer.write('\n');
+                recorded.incrementAndGet();
+                written = true;
+            }
+            if (written) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not write property access trace {}, stopping recording", file, e);
+            PropertyAccessListeners.unregister(this);
+            running = false;
+            pending.clear();
+            pendingCount.set(0);
+            close();
+        }
+    }
+
+    private synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            LOG.warn("Could not close property access trace {}", file, e);
+        }
+    }
+
+    /**
+     * Reads a trace written by a recorder, in recording order.
+     */
+    public static List<Access> read(File file) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            List<Access> accesses = new ArrayList<Access>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    accesses.add(Access.parse(line));
+                }
+            }
+            return accesses;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * A recorded property read.
+     */
+    public static final class Access {
+
+        private final long nanos;
+        private final long threadId;
+        private final String thread;
+        private final String source;
+        private final String property;
+        private final boolean encrypted;
+
+        public Access(long nanos, long threadId, String thread, String source, String property, boolean encrypted) {
+            this.nanos = nanos;
+            this.threadId = threadId;
+            this.thread = thread;
+            this.source = source;
+            this.property = property;
+            this.encrypted = encrypted;
+        }
+
+        /**
+         * Time of the read since the recording started, in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        /**
+         * Name of the property source that served the read, or {@code null} when unknown.
+         */
+        public String getSource() {
+            return source;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        public boolean isEncrypted() {
+            return encrypted;
+        }
+
+        private String toLine() {
+            return new StringBuilder(64 + property.length())
+                    .append(nanos).append('\t')
+                    .append(threadId).append('\t')
+                    .append(escape(thread)).append('\t')
+                    .append(source != null ? escape(source) : "").append('\t')
+                    .append(escape(property)).append('\t')
+                    .append(encrypted)
+                    .toString();
+        }
+
+        private static Access parse(String line) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 6) {
+                throw new IllegalArgumentException("Invalid property access trace line: " + line);
+            }
+            return new Access(Long.parseLong(fields[0]), Long.parseLong(fields[1]), unescape(fields[2]),
+                    fields[3].isEmpty() ? null : unescape(fields[3]), unescape(fields[4]), Boolean.parseBoolean(fields[5]));
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf('\\') < 0 && value.indexOf('\t') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+        }
+
+        private static String unescape(String value) {
+            if (value.indexOf('\\') < 0) {
+                return value;
+            }
+            StringBuilder unescaped = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\\' && i + 1 < value.length()) {
+                    char escaped = value.charAt(++i);
+                    c = escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped;
+                }
+                unescaped.append(c);
+            }
+            return unescaped.toString();
+        }
+    }
+}
@@ -18,12 +18,33 @@ public class EncryptablePropertySourcesConfigurationProperties {
    */
   private Boolean proxyPropertySources = false;
 
+  /**
+   * Whether to scan enumerable {@link org.springframework.core.env.PropertySource} instances once and only make
+   * encryptable those that contain encrypted values, so that lookups against the rest are not intercepted.
+   * Default Value is {@code false}.
+   */
+  private Boolean selectivePropertySources = false;
+
+  /**
+   * Whether to make encryptable the {@link org.springframework.core.env.PropertySource} instances that cannot be
+   * enumerated, and thus scanned, when {@code selectivePropertySources} is enabled.
+   * Default Value is {@code true}.
+   */
+  private Boolean wrapNonEnumerablePropertySources = true;
+
   /**
    * Specify the name of bean to override jasypt-spring-boot's default properties based {@link org.jasypt.encryption.StringEncryptor}.
    * Default Value is {@code jasyptStringEncryptor}.
    */
   private String bean = "jasyptStringEncryptor";
 
+  /**
+   * Specify the name of bean to override jasypt-spring-boot's default properties based
+   * {@link com.ulisesbocchio.jasyptspringboot.encryptor.ByteBufferEncryptor}.
+   * Default Value is {@code jasyptByteEncryptor}.
+   */
+  private String byteBean = "jasyptByteEncryptor";
+
   public Boolean getProxyPropertySources() {
     return proxyPropertySources;
   }
@@ -32,6 +53,22 @@ public class EncryptablePropertySourcesConfigurationProperties {
     this.proxyPropertySources = proxyPropertySources;
   }
 
+  public Boolean getSelectivePropertySources() {
+    return selectivePropertySources;
+  }
+
+  public void setSelectivePropertySources(Boolean selectivePropertySources) {
+    this.selectivePropertySources = selectivePropertySources;
+  }
+
+  public Boolean getWrapNonEnumerablePropertySources() {
+    return wrapNonEnumerablePropertySources;
+  }
+
+  public void setWrapNonEnumerablePropertySources(Boolean wrapNonEnumerablePropertySources) {
+    this.wrapNonEnumerablePropertySources = wrapNonEnumerablePropertySources;
+  }
+
   public String getBean() {
     return bean;
   }
@@ -39,4 +76,12 @@ public class EncryptablePropertySourcesConfigurationProperties {
   public void setBean(String bean) {
     this.bean = bean;
   }
+
+  public String getByteBean() {
+    return byteBean;
+  }
+
+  public void setByteBean(String byteBean) {
+    this.byteBean = byteBean;
+  }
 }
@@ -1,7 +1,11 @@
 package com.ulisesbocchio.jasyptspringboot.properties;
 
+import com.ulisesbocchio.jasyptspringboot.encryptor.EncryptorType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Not Actually used. To this moment this class is only added for meta data auto generation.
  * By the time this configuration is used the configuration properties mechanism doesn't actually
@@ -67,6 +71,18 @@ public class JasyptEncryptorConfigurationProperties {
    */
   private String saltGeneratorClassname = "org.jasypt.salt.RandomSaltGenerator";
 
+  /**
+   * Kind of encryptor to create: {@code POOLED} for a pool of {@code poolSize} encryptors, {@code THREAD_LOCAL}
+   * for one encryptor per thread, suited to high throughput runtime encryption, or {@code BUFFERED} for per thread
+   * ciphers and buffers, allocating less per operation. {@code THREAD_LOCAL} and {@code BUFFERED} use
+   * {@link com.ulisesbocchio.jasyptspringboot.salt.ThreadLocalRandomSaltGenerator} as default salt generator.
+   * Default Value is {@code POOLED}.
+   *
+   * @see com.ulisesbocchio.jasyptspringboot.encryptor.ThreadLocalPBEStringEncryptor
+   * @see com.ulisesbocchio.jasyptspringboot.encryptor.BufferedPBEStringEncryptor
+   */
+  private EncryptorType type = EncryptorType.POOLED;
+
   /**
    * Specify the form in which String output will be encoded. {@code "base64"} or {@code "hexadecimal"}.
    * Default Value is {@code "base64"}.
@@ -76,6 +92,79 @@ public class JasyptEncryptorConfigurationProperties {
    */
   private String stringOutputType = "base64";
 
+  /**
+   * Whether to canonicalize equal decrypted values and cached property names to a single weakly referenced instance.
+   * Default Value is {@code false}.
+   *
+   * @see com.ulisesbocchio.jasyptspringboot.cache.StringDeduplicator
+   */
+  private Boolean deduplicate = false;
+
+  /**
+   * Whether application contexts in the same JVM with the same encryptor configuration share one encryptor and its
+   * decrypted values. Tenant encryptors are never shared.
+   * Default Value is {@code false}.
+   *
+   * @see com.ulisesbocchio.jasyptspringboot.encryptor.SharedEncryptorRegistry
+   */
+  private Boolean shared = false;
+
+  /**
+   * Maximum number of decrypted values cached by each shared encryptor.
+   * Default Value is {@code 10000}.
+   */
+  private Integer sharedCacheSize = 10000;
+
+  /**
+   * Per tenant encryptor configuration, keyed by {@code <id>.<property>}, like {@code acme.password}. Tenants accept
+   * the same properties as the default encryptor, all but the password falling back to their
+   * {@code jasypt.encryptor.*} value.
+   *
+   * @see com.ulisesbocchio.jasyptspringboot.encryptor.TenantStringEncryptorResolver
+   */
+  private Map<String, String> tenants = new LinkedHashMap<String, String>();
+
+  /**
+   * Maximum number of tenant encryptors kept in memory, least recently used ones are evicted first.
+   * Default Value is {@code 1000}.
+   */
+  private Integer tenantCacheSize = 1000;
+
+  /**
+   * Remote key service used for Encryption/Decryption instead of the local master password.
+   */
+  private Remote remote = new Remote();
+
+  /**
+   * Background warm-up of the encryptor at startup.
+   */
+  private WarmUp warmup = new WarmUp();
+
+  /**
+   * Background decryption of the encrypted siblings of decrypted properties.
+   */
+  private Prefetch prefetch = new Prefetch();
+
+  /**
+   * Scheduling of decryptions, bounding their concurrency and CPU usage.
+   */
+  private Scheduler scheduler = new Scheduler();
+
+  /**
+   * Recording of property reads, to replay them in benchmarks.
+   */
+  private Recorder recorder = new Recorder();
+
+  /**
+   * Non blocking facade over the encryptor, for reactive applications.
+   */
+  private Async async = new Async();
+
+  /**
+   * Profiler of property reads, to find the most read keys.
+   */
+  private Profiler profiler = new Profiler();
+
   public String getPassword() {
     return password;
   }
@@ -124,6 +213,14 @@ public class JasyptEncryptorConfigurationProperties {
     this.saltGeneratorClassname = saltGeneratorClassname;
   }
 
+  public EncryptorType getType() {
+    return type;
+  }
+
+  public void setType(EncryptorType type) {
+    this.type = type;
+  }
+
   public String getStringOutputType() {
     return stringOutputType;
   }
@@ -131,4 +228,489 @@ public class JasyptEncryptorConfigurationProperties {
   public void setStringOutputType(String stringOutputType) {
     this.stringOutputType = stringOutputType;
   }
+
+  public Boolean getDeduplicate() {
+    return deduplicate;
+  }
+
+  public void setDeduplicate(Boolean deduplicate) {
+    this.deduplicate = deduplicate;
+  }
+
+  public Boolean getShared() {
+    return shared;
+  }
+
+  public void setShared(Boolean shared) {
+    this.shared = shared;
+  }
+
+  public Integer getSharedCacheSize() {
+    return sharedCacheSize;
+  }
+
+  public void setSharedCacheSize(Integer sharedCacheSize) {
+    this.sharedCacheSize = sharedCacheSize;
+  }
+
+  public Map<String, String> getTenants() {
+    return tenants;
+  }
+
+  public void setTenants(Map<String, String> tenants) {
+    this.tenants = tenants;
+  }
+
+  public Integer getTenantCacheSize() {
+    return tenantCacheSize;
+  }
+
+  public void setTenantCacheSize(Integer tenantCacheSize) {
+    this.tenantCacheSize = tenantCacheSize;
+  }
+
+  public Remote getRemote() {
+    return remote;
+  }
+
+  public void setRemote(Remote remote) {
+    this.remote = remote;
+  }
+
+  public WarmUp getWarmup() {
+    return warmup;
+  }
+
+  public void setWarmup(WarmUp warmup) {
+    this.warmup = warmup;
+  }
+
+  public Prefetch getPrefetch() {
+    return prefetch;
+  }
+
+  public void setPrefetch(Prefetch prefetch) {
+    this.prefetch = prefetch;
+  }
+
+  public Scheduler getScheduler() {
+    return scheduler;
+  }
+
+  public void setScheduler(Scheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  public Recorder getRecorder() {
+    return recorder;
+  }
+
+  public void setRecorder(Recorder recorder) {
+    this.recorder = recorder;
+  }
+
+  public Async getAsync() {
+    return async;
+  }
+
+  public void setAsync(Async async) {
+    this.async = async;
+  }
+
+  public Profiler getProfiler() {
+    return profiler;
+  }
+
+  public void setProfiler(Profiler profiler) {
+    this.profiler = profiler;
+  }
+
+  public static class Remote {
+
+    /**
+     * Base url of the remote key service. When present, values are encrypted/decrypted by POSTing them to
+     * {@code {url}/encrypt} and {@code {url}/decrypt}.
+     *
+     * @see com.ulisesbocchio.jasyptspringboot.encryptor.RemoteStringEncryptor
+     */
+    private String url;
+
+    /**
+     * Connection timeout in milliseconds.
+     * Default Value is {@code 2000}.
+     */
+    private Integer connectTimeout = 2000;
+
+    /**
+     * Read timeout in milliseconds.
+     * Default Value is {@code 5000}.
+     */
+    private Integer readTimeout = 5000;
+
+    /**
+     * Maximum number of values sent in a single request.
+     * Default Value is {@code 100}.
+     */
+    private Integer batchSize = 100;
+
+    /**
+     * Time in milliseconds to wait for a batch to fill up before sending it.
+     * Default Value is {@code 5}.
+     */
+    private Long batchWindow = 5L;
+
+    /**
+     * Maximum number of requests in flight at the same time.
+     * Default Value is {@code 4}.
+     */
+    private Integer maxConcurrentRequests = 4;
+
+    /**
+     * Time in milliseconds a caller waits for its value before failing.
+     * Default Value is {@code 10000}.
+     */
+    private Long timeout = 10000L;
+
+    /**
+     * Maximum number of decrypted values remembered by the remote encryptor, {@code 0} to remember none.
+     * Default Value is {@code 1000}.
+     */
+    private Integer cacheSize = 1000;
+
+    /**
+     * Whether to send the {@code ENC(...)} values found in the environment to the remote key service on first use.
+     * Only applies to the default encryptor, never to tenant encryptors.
+     * Default Value is {@code true}.
+     */
+    private Boolean prefetch = true;
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public Integer getConnectTimeout() {
+      return connectTimeout;
+    }
+
+    public void setConnectTimeout(Integer connectTimeout) {
+      this.connectTimeout = connectTimeout;
+    }
+
+    public Integer getReadTimeout() {
+      return readTimeout;
+    }
+
+    public void setReadTimeout(Integer readTimeout) {
+      this.readTimeout = readTimeout;
+    }
+
+    public Integer getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    public Long getBatchWindow() {
+      return batchWindow;
+    }
+
+    public void setBatchWindow(Long batchWindow) {
+      this.batchWindow = batchWindow;
+    }
+
+    public Integer getMaxConcurrentRequests() {
+      return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(Integer maxConcurrentRequests) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public Long getTimeout() {
+      return timeout;
+    }
+
+    public void setTimeout(Long timeout) {
+      this.timeout = timeout;
+    }
+
+    public Integer getCacheSize() {
+      return cacheSize;
+    }
+
+    public void setCacheSize(Integer cacheSize) {
+      this.cacheSize = cacheSize;
+    }
+
+    public Boolean getPrefetch() {
+      return prefetch;
+    }
+
+    public void setPrefetch(Boolean prefetch) {
+      this.prefetch = prefetch;
+    }
+  }
+
+  public static class Profiler {
+
+    /**
+     * Whether to count property reads by key, source and encryption.
+     * Default Value is {@code false}.
+     *
+     * @see com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessProfiler
+     */
+    private Boolean enabled = false;
+
+    /**
+     * Maximum number of keys tracked by the profiler.
+     * Default Value is {@code 256}.
+     */
+    private Integer capacity = 256;
+
+    public Boolean getEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Integer getCapacity() {
+      return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+      this.capacity = capacity;
+    }
+  }
+
+  public static class Async {
+
+    /**
+     * Whether to register an {@link com.ulisesbocchio.jasyptspringboot.encryptor.AsyncStringEncryptor} over the
+     * encryptor bean.
+     * Default Value is {@code false}.
+     */
+    private Boolean enabled = false;
+
+    /**
+     * Maximum number of threads running operations.
+     * Default Value is the number of available processors.
+     */
+    private Integer threads;
+
+    /**
+     * Maximum number of operations waiting for a thread, further operations fail right away.
+     * Default Value is {@code 1000}.
+     */
+    private Integer queueCapacity = 1000;
+
+    /**
+     * Maximum number of decrypted values cached, {@code 0} disables the cache.
+     * Default Value is {@code 1000}.
+     */
+    private Integer cacheSize = 1000;
+
+    public Boolean getEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Integer getThreads() {
+      return threads;
+    }
+
+    public void setThreads(Integer threads) {
+      this.threads = threads;
+    }
+
+    public Integer getQueueCapacity() {
+      return queueCapacity;
+    }
+
+    public void setQueueCapacity(Integer queueCapacity) {
+      this.queueCapacity = queueCapacity;
+    }
+
+    public Integer getCacheSize() {
+      return cacheSize;
+    }
+
+    public void setCacheSize(Integer cacheSize) {
+      this.cacheSize = cacheSize;
+    }
+  }
+
+  public static class Prefetch {
+
+    /**
+     * Whether to decrypt, on the first decryption under a prefix, the other encrypted properties under that prefix
+     * on background threads.
+     * Default Value is {@code false}.
+     *
+     * @see com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionPrefetcher
+     */
+    private Boolean enabled = false;
+
+    /**
+     * Number of prefetch threads, shared by all property sources.
+     * Default Value is the number of available processors.
+     */
+    private Integer threads;
+
+    public Boolean getEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Integer getThreads() {
+      return threads;
+    }
+
+    public void setThreads(Integer threads) {
+      this.threads = threads;
+    }
+  }
+  public static class Scheduler {
+
+    /**
+     * Whether decryptions wait for their turn in a JVM wide scheduler, bounding how many run at once and how much CPU
+     * they use, with properties being read going before prefetching and warm-up.
+     * Default Value is {@code false}.
+     *
+     * @see com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionScheduler
+     */
+    private Boolean enabled = false;
+
+    /**
+     * Maximum number of decryptions running at once.
+     * Default Value is the number of available processors.
+     */
+    private Integer concurrency;
+
+    /**
+     * Share of the available processors' time decryptions may use, greater than {@code 0} and up to {@code 1}.
+     * Default Value is {@code 1}.
+     */
+    private Double cpuBudget = 1.0;
+
+    public Boolean getEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Integer getConcurrency() {
+      return concurrency;
+    }
+
+    public void setConcurrency(Integer concurrency) {
+      this.concurrency = concurrency;
+    }
+
+    public Double getCpuBudget() {
+      return cpuBudget;
+    }
+
+    public void setCpuBudget(Double cpuBudget) {
+      this.cpuBudget = cpuBudget;
+    }
+  }
+  public static class Recorder {
+
+    /**
+     * Whether to record every property read, without its value, to a tab separated trace file, from the moment
+     * property sources are made encryptable until the JVM exits.
+     * Default Value is {@code false}.
+     *
+     * @see com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessRecorder
+     */
+    private Boolean enabled = false;
+
+    /**
+     * Trace file, overwritten when recording starts.
+     * Default Value is {@code jasypt-property-access.tsv}.
+     */
+    private String file = "jasypt-property-access.tsv";
+
+    public Boolean getEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public String getFile() {
+      return file;
+    }
+
+    public void setFile(String file) {
+      this.file = file;
+    }
+  }
+
+
+
+  public static class WarmUp {
+
+    /**
+     * Whether to run encrypt/decrypt cycles on background threads once the context is started, so that the first
+     * runtime encryption or decryption does not pay for the encryptor initialization.
+     * Default Value is {@code false}.
+     *
+     * @see com.ulisesbocchio.jasyptspringboot.encryptor.EncryptorWarmUp
+     */
+    private Boolean enabled = false;
+
+    /**
+     * Number of warm-up threads.
+     * Default Value is the value of {@code jasypt.encryptor.poolSize}.
+     */
+    private Integer threads;
+
+    /**
+     * Number of encrypt/decrypt cycles run by each warm-up thread.
+     * Default Value is {@code 10}.
+     */
+    private Integer iterations = 10;
+
+    public Boolean getEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Integer getThreads() {
+      return threads;
+    }
+
+    public void setThreads(Integer threads) {
+      this.threads = threads;
+    }
+
+    public Integer getIterations() {
+      return iterations;
+    }
+
+    public void setIterations(Integer iterations) {
+      this.iterations = iterations;
+    }
+  }
 }
@@ -0,0 +1,63 @@
+package com.ulisesbocchio.jasyptspringboot.salt;
+
+import org.jasypt.exceptions.EncryptionInitializationException;
+import org.jasypt.salt.SaltGenerator;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * <p>{@link SaltGenerator} equivalent to {@link org.jasypt.salt.RandomSaltGenerator} that keeps one
+ * {@link SecureRandom} per thread, instead of a single instance behind a lock, so salt generation never blocks
+ * concurrent encryptions. Salts are included in the encryption results, so values encrypted with it are decrypted by
+ * any encryptor using {@link org.jasypt.salt.RandomSaltGenerator} and vice versa.</p>
+ * <p>It can be selected with {@code jasypt.encryptor.saltGeneratorClassname}, and is the default for the
+ * {@code THREAD_LOCAL} encryptor type.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class ThreadLocalRandomSaltGenerator implements SaltGenerator {
+
+    private final ThreadLocal<SecureRandom> random;
+
+    public ThreadLocalRandomSaltGenerator() {
+        this("SHA1PRNG");
+    }
+
+    public ThreadLocalRandomSaltGenerator(final String secureRandomAlgorithm) {
+        try {
+            SecureRandom.getInstance(secureRandomAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new EncryptionInitializationException(e);
+        }
+        this.random = new ThreadLocal<SecureRandom>() {
+            @Override
+            protected SecureRandom initialValue() {
+                try {
+                    return SecureRandom.getInstance(secureRandomAlgorithm);
+                } catch (NoSuchAlgorithmException e) {
+                    throw new EncryptionInitializationException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public byte[] generateSalt(int lengthBytes) {
+        byte[] salt = new byte[lengthBytes];
+        generateSalt(salt);
+        return salt;
+    }
+
+    /**
+     * Fills {@code salt} with random bytes, for callers reusing their salt buffer.
+     */
+    public void generateSalt(byte[] salt) {
+        random.get().nextBytes(salt);
+    }
+
+    @Override
+    public boolean includePlainSaltInEncryptionResults() {
+        return true;
+    }
+}
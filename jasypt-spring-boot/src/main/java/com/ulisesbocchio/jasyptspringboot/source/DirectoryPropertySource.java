@@ -0,0 +1,161 @@
+package com.ulisesbocchio.jasyptspringboot.source;
+
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.util.Assert;
+import org.springframework.util.FileCopyUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>{@link EnumerablePropertySource} mapping a directory tree to properties, one property per file, named after the
+ * file's path relative to the directory with separators replaced by dots, and valued with its UTF-8 content without
+ * trailing line breaks. For example, {@code /etc/secrets/db/password} is property {@code db.password} of directory
+ * {@code /etc/secrets}. This is how Kubernetes mounts secrets and config maps. Hidden entries, those starting with a
+ * dot, are ignored, like the {@code ..data} links Kubernetes uses to swap mounted files atomically.</p>
+ * <p>File names are listed once, on construction, without reading any file. Files are read when their property is
+ * first requested, and their content is kept until their modification time or length changes, so a pod with
+ * hundreds of mounted secrets only reads those it uses, and sees updated ones on their next read. Files added or
+ * removed after construction are only seen after {@link #refresh()}.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class DirectoryPropertySource extends EnumerablePropertySource<File> {
+
+    private static final Charset CONTENT_CHARSET = Charset.forName("UTF-8");
+
+    private final ConcurrentMap<String, Content> contents = new ConcurrentHashMap<String, Content>();
+    private volatile Listing listing;
+
+    public DirectoryPropertySource(String name, File directory) {
+        super(name, directory);
+        Assert.isTrue(directory.isDirectory(), "Not a directory: " + directory);
+        this.listing = list(directory);
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        File file = listing.files.get(name);
+        if (file == null) {
+            return null;
+        }
+        long lastModified = file.lastModified();
+        long length = file.length();
+        Content content = contents.get(name);
+        if (content != null && content.lastModified == lastModified && content.length == length) {
+            return content.value;
+        }
+        if (lastModified == 0) {
+            // removed since listed
+            contents.remove(name);
+            return null;
+        }
+        content = read(file, lastModified, length);
+        if (content == null) {
+            contents.remove(name);
+            return null;
+        }
+        contents.put(name, content);
+        return content.value;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return listing.names.clone();
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return listing.files.containsKey(name);
+    }
+
+    /**
+     * Lists the directory again, for files added or removed since it was last listed. Contents of files still
+     * present are kept.
+     */
+    public void refresh() {
+        Listing refreshed = list(getSource());
+        listing = refreshed;
+        contents.keySet().retainAll(refreshed.files.keySet());
+    }
+
+    private static Content read(File file, long lastModified, long length) {
+        byte[] bytes;
+        try {
+            bytes = FileCopyUtils.copyToByteArray(file);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read property file " + file, e);
+        }
+        int end = bytes.length;
+        while (end > 0 && (bytes[end - 1] == '\n' || bytes[end - 1] == '\r')) {
+            end--;
+        }
+        return new Content(lastModified, length, new String(bytes, 0, end, CONTENT_CHARSET));
+    }
+
+    private static Listing list(File directory) {
+        Map<String, File> files = new LinkedHashMap<String, File>();
+        list(directory, "", files, new HashSet<String>());
+        return new Listing(files);
+    }
+
+    private static void list(File directory, String prefix, Map<String, File> files, Set<String> visited) {
+        try {
+            // symbolic links may point back to a parent directory
+            if (!visited.add(directory.getCanonicalPath())) {
+                return;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not list property directory " + directory, e);
+        }
+        File[] entries = directory.listFiles();
+        if (entries == null) {
+            return;
+        }
+        Arrays.sort(entries);
+        for (File entry : entries) {
+            if (entry.getName().startsWith(".")) {
+                continue;
+            }
+            String name = prefix + entry.getName();
+            if (entry.isDirectory()) {
+                list(entry, name + ".", files, visited);
+            } else if (entry.isFile()) {
+                files.put(name, entry);
+            }
+        }
+    }
+
+    private static class Listing {
+        private final Map<String, File> files;
+        private final String[] names;
+
+        private Listing(Map<String, File> files) {
+            this.files = files;
+            this.names = files.keySet().toArray(new String[files.size()]);
+        }
+    }
+
+    private static class Content {
+        private final long lastModified;
+        private final long length;
+        private final String value;
+
+        private Content(long lastModified, long length, String value) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.value = value;
+        }
+    }
+}
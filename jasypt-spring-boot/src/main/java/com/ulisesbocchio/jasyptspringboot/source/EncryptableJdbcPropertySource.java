@@ -0,0 +1,473 @@
+package com.ulisesbocchio.jasyptspringboot.source;
+
+import com.ulisesbocchio.jasyptspringboot.EncryptablePropertySource;
+import com.ulisesbocchio.jasyptspringboot.Helper;
+import com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessListeners;
+import org.jasypt.encryption.StringEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * <p>{@link EnumerablePropertySource} reading properties from a database table, one row per property, with a key and
+ * a value column, decrypting encrypted values on retrieval. Meant for tables too large to be loaded as a whole, like
+ * thousands of per customer settings.</p>
+ * <p>Keys are listed on first use, {@code batchSize} rows per query, without reading values. Values are fetched on
+ * demand, together with those of the next keys in listing order, {@code batchSize} keys per query, so that enumerating
+ * the source and reading every property, like the binder does, takes a query per batch rather than per key. Fetched
+ * values are kept in a least recently used cache of {@code cacheSize} rows, and are decrypted once, when first
+ * read.</p>
+ * <p>When the table has a version column, increased whenever a row is inserted or updated, like a sequence number or
+ * an update timestamp, {@link #poll()} reloads the rows whose version is greater than the greatest seen, and
+ * {@link #startPolling(long)} does so periodically. Polled rows replace those cached or being fetched, so a fetch
+ * racing with a poll never caches the value the poll replaced. Deleted rows are only seen after {@link #refresh()},
+ * which lists the keys again and empties the cache.</p>
+ * <p>Only the JDK's JDBC API is used, with portable SQL, so any database and connection pool can back the source.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class EncryptableJdbcPropertySource extends EnumerablePropertySource<DataSource> implements EncryptablePropertySource<DataSource> {
+
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final Logger LOG = LoggerFactory.getLogger(EncryptableJdbcPropertySource.class);
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final StringEncryptor encryptor;
+    private final String versionColumn;
+    private final int batchSize;
+    private final String listSql;
+    private final String listAfterSql;
+    private final String fetchSql;
+    private final String maxVersionSql;
+    private final String changedSql;
+    private final String versionedSql;
+    private final Map<String, Row> cache;
+    // keys of the fetches in flight, with their number, guarded by the cache
+    private final Map<String, int[]> fetching = new HashMap<String, int[]>();
+    private volatile Listing listing;
+    private Object version;
+    private ScheduledExecutorService poller;
+
+    public EncryptableJdbcPropertySource(String name, DataSource dataSource, String table, String keyColumn,
+                                         String valueColumn, StringEncryptor encryptor) {
+        this(name, dataSource, table, keyColumn, valueColumn, null, DEFAULT_CACHE_SIZE, DEFAULT_BATCH_SIZE, encryptor);
+    }
+
+    /**
+     * @param versionColumn column increased whenever a row is inserted or updated, or {@code null} if there is none,
+     *                      which disables polling
+     * @param cacheSize     maximum number of rows kept in memory
+     * @param batchSize     maximum number of rows read per query
+     */
+    public EncryptableJdbcPropertySource(String name, DataSource dataSource, String table, String keyColumn,
+                                         String valueColumn, String versionColumn, final int cacheSize, int batchSize,
+                                         StringEncryptor encryptor) {
+        super(name, dataSource);
+        Assert.notNull(dataSource, "DataSource cannot be null");
+        Assert.notNull(encryptor, "StringEncryptor cannot be null");
+        Assert.isTrue(cacheSize > 0, "Cache size must be positive");
+        Assert.isTrue(batchSize > 0, "Batch size must be positive");
+        checkIdentifier(table);
+        checkIdentifier(keyColumn);
+        checkIdentifier(valueColumn);
+        if (versionColumn != null) {
+            checkIdentifier(versionColumn);
+        }
+        this.encryptor = encryptor;
+        this.versionColumn = versionColumn;
+        this.batchSize = batchSize;
+        this.listSql = String.format("SELECT %s FROM %s ORDER BY %s", keyColumn, table, keyColumn);
+        this.listAfterSql = String.format("SELECT %s FROM %s WHERE %s > ? ORDER BY %s", keyColumn, table, keyColumn, keyColumn);
+        StringBuilder fetchSql = new StringBuilder(String.format("SELECT %s, %s FROM %s WHERE %s IN (?", keyColumn, valueColumn, table, keyColumn));
+        for (int i = 1; i < batchSize; i++) {
+            fetchSql.append(", ?");
+        }
+        this.fetchSql = fetchSql.append(')').toString();
+        this.maxVersionSql = versionColumn != null ? String.format("SELECT MAX(%s) FROM %s", versionColumn, table) : null;
+        this.changedSql = versionColumn != null ? String.format("SELECT %s, %s, %s FROM %s WHERE %s > ?",
+                keyColumn, valueColumn, versionColumn, table, versionColumn) : null;
+        this.versionedSql = versionColumn != null ? String.format("SELECT %s, %s, %s FROM %s WHERE %s IS NOT NULL",
+                keyColumn, valueColumn, versionColumn, table, versionColumn) : null;
+        this.cache = new LinkedHashMap<String, Row>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Row> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    private static void checkIdentifier(String identifier) {
+        Assert.isTrue(identifier != null && IDENTIFIER.matcher(identifier).matches(), "Invalid table or column name: " + identifier);
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        Listing current = listing();
+        Integer position = current.positions.get(name);
+        if (position == null) {
+            return null;
+        }
+        Row row;
+        synchronized (cache) {
+            row = cache.get(name);
+        }
+        if (row == null) {
+            row = fetch(current, position, name);
+        }
+        boolean encrypted = row.value != null && Helper.isEncryptedValue(row.value, encryptor);
+        Object value = encrypted ? row.decrypt(name) : row.value;
+        if (value != null && !PropertyAccessListeners.isEmpty()) {
+            PropertyAccessListeners.propertyRead(getName(), name, encrypted);
+        }
+        return value;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return listing().names.clone();
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return listing().positions.containsKey(name);
+    }
+
+    /**
+     * Reloads the rows changed since keys were listed or last polled, including inserted ones.
+     *
+     * @return number of rows changed
+     * @throws IllegalStateException if there is no version column
+     */
+    public synchronized int poll() {
+        Assert.state(versionColumn != null, "Polling requires a version column");
+        if (listing == null) {
+            listing();
+            return 0;
+        }
+        Map<String, Row> changed = new LinkedHashMap<String, Row>();
+        Object greatestVersion = version;
+        Connection connection = null;
+        try {
+            connection = getSource().getConnection();
+            // no version was seen if the table was empty
+            PreparedStatement statement = connection.prepareStatement(version != null ? changedSql : versionedSql);
+            try {
+                if (version != null) {
+                    statement.setObject(1, version);
+                }
+                ResultSet resultSet = statement.executeQuery();
+                try {
+                    while (resultSet.next()) {
+                        changed.put(resultSet.getString(1), new Row(resultSet.getString(2)));
+                        greatestVersion = greatest(greatestVersion, resultSet.getObject(3));
+                    }
+                } finally {
+                    resultSet.close();
+                }
+            } finally {
+                statement.close();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not poll properties of " + getName(), e);
+        } finally {
+            close(connection);
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        List<String> added = new ArrayList<String>();
+        for (String key : changed.keySet()) {
+            if (!listing.positions.containsKey(key)) {
+                added.add(key);
+            }
+        }
+        if (!added.isEmpty()) {
+            List<String> names = new ArrayList<String>(Arrays.asList(listing.names));
+            names.addAll(added);
+            listing = new Listing(names);
+        }
+        synchronized (cache) {
+            for (Map.Entry<String, Row> row : changed.entrySet()) {
+                // replace cached rows only, so that polling does not evict rows being read, and rows being fetched, whose
+                // fetch may have read them before they changed
+                if (cache.containsKey(row.getKey()) || fetching.containsKey(row.getKey())) {
+                    cache.put(row.getKey(), row.getValue());
+                }
+            }
+        }
+        version = greatestVersion;
+        LOG.debug("Polled {} changed properties of {}", changed.size(), getName());
+        return changed.size();
+    }
+
+    /**
+     * Polls for changed rows every {@code intervalMillis} from a daemon thread, until {@link #shutdown()}. Failures
+     * are logged and polling goes on.
+     */
+    public synchronized void startPolling(long intervalMillis) {
+        Assert.state(versionColumn != null, "Polling requires a version column");
+        Assert.state(poller == null, "Already polling");
+        Assert.isTrue(intervalMillis > 0, "Polling interval must be positive");
+        poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "jasypt-jdbc-poller-" + getName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        poller.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    poll();
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not poll properties of {}", getName(), e);
+                }
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops polling, if started.
+     */
+    public synchronized void shutdown() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    /**
+     * Lists the keys again on next use and empties the cache, for deleted rows, or changes to a table without a
+     * version column.
+     */
+    public synchronized void refresh() {
+        listing = null;
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private Listing listing() {
+        Listing current = listing;
+        if (current == null) {
+            synchronized (this) {
+                current = listing;
+                if (current == null) {
+                    current = list();
+                    listing = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Listing list() {
+        List<String> names = new ArrayList<String>();
+        Connection connection = null;
+        try {
+            connection = getSource().getConnection();
+            // read before listing, so that rows changed while listing are polled again
+            version = versionColumn != null ? maxVersion(connection) : null;
+            String last = null;
+            int listed;
+            do {
+                PreparedStatement statement = connection.prepareStatement(last == null ? listSql : listAfterSql);
+                try {
+                    statement.setMaxRows(batchSize);
+                    statement.setFetchSize(batchSize);
+                    if (last != null) {
+                        statement.setString(1, last);
+                    }
+                    ResultSet resultSet = statement.executeQuery();
+                    try {
+                        listed = 0;
+                        while (resultSet.next()) {
+                            last = resultSet.getString(1);
+                            names.add(last);
+                            listed++;
+                        }
+                    } finally {
+                        resultSet.close();
+                    }
+                } finally {
+                    statement.close();
+                }
+            } while (listed == batchSize);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not list properties of " + getName(), e);
+        } finally {
+            close(connection);
+        }
+        LOG.debug("Listed {} properties of {}", names.size(), getName());
+        return new Listing(names);
+    }
+
+    private Object maxVersion(Connection connection) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(maxVersionSql);
+        try {
+            ResultSet resultSet = statement.executeQuery();
+            try {
+                return resultSet.next() ? resultSet.getObject(1) : null;
+            } finally {
+                resultSet.close();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Fetches the row of the given key along with those of the next keys not cached yet. Rows cached meanwhile, by
+     * another fetch or a poll, are kept rather than replaced.
+     */
+    private Row fetch(Listing current, int position, String name) {
+        List<String> keys = new ArrayList<String>(batchSize);
+        keys.add(name);
+        synchronized (cache) {
+            for (int i = position + 1; i < current.names.length && keys.size() < batchSize; i++) {
+                if (!cache.containsKey(current.names[i])) {
+                    keys.add(current.names[i]);
+                }
+            }
+            for (String key : keys) {
+                int[] count = fetching.get(key);
+                if (count == null) {
+                    fetching.put(key, new int[]{1});
+                } else {
+                    count[0]++;
+                }
+            }
+        }
+        try {
+            return fetch(keys, name);
+        } finally {
+            synchronized (cache) {
+                for (String key : keys) {
+                    int[] count = fetching.get(key);
+                    if (--count[0] == 0) {
+                        fetching.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private Row fetch(List<String> keys, String name) {
+        Map<String, Row> rows = new HashMap<String, Row>();
+        Connection connection = null;
+        try {
+            connection = getSource().getConnection();
+            PreparedStatement statement = connection.prepareStatement(fetchSql);
+            try {
+                // unused placeholders repeat the requested key
+                for (int i = 0; i < batchSize; i++) {
+                    statement.setString(i + 1, i < keys.size() ? keys.get(i) : name);
+                }
+                ResultSet resultSet = statement.executeQuery();
+                try {
+                    while (resultSet.next()) {
+                        rows.put(resultSet.getString(1), new Row(resultSet.getString(2)));
+                    }
+                } finally {
+                    resultSet.close();
+                }
+            } finally {
+                statement.close();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read property " + name + " of " + getName(), e);
+        } finally {
+            close(connection);
+        }
+        if (!rows.containsKey(name)) {
+            // deleted since listed, kept until refreshed rather than queried on every read
+            rows.put(name, new Row(null));
+        }
+        synchronized (cache) {
+            // the requested row last, so that it is the least likely evicted
+            for (int i = keys.size() - 1; i >= 0; i--) {
+                Row row = rows.get(keys.get(i));
+                if (row != null && !cache.containsKey(keys.get(i))) {
+                    cache.put(keys.get(i), row);
+                }
+            }
+            Row row = cache.get(name);
+            return row != null ? row : rows.get(name);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object greatest(Object version, Object candidate) {
+        if (version == null) {
+            return candidate;
+        }
+        return candidate != null && ((Comparable<Object>) candidate).compareTo(version) > 0 ? candidate : version;
+    }
+
+    private void close(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.debug("Could not close connection of {}", getName(), e);
+            }
+        }
+    }
+
+    private static class Listing {
+        private final String[] names;
+        private final Map<String, Integer> positions;
+
+        private Listing(List<String> names) {
+            this.names = names.toArray(new String[names.size()]);
+            Map<String, Integer> positions = new HashMap<String, Integer>(names.size() * 4 / 3 + 1);
+            for (int i = 0; i < this.names.length; i++) {
+                positions.put(this.names[i], i);
+            }
+            this.positions = Collections.unmodifiableMap(positions);
+        }
+    }
+
+    private class Row {
+        private final String value;
+        private volatile String decrypted;
+
+        private Row(String value) {
+            this.value = value;
+        }
+
+        private String decrypt(String name) {
+            String current = decrypted;
+            if (current == null) {
+                current = Helper.decrypt(encryptor, value, getName(), name);
+                decrypted = current;
+            }
+            return current;
+        }
+    }
+}
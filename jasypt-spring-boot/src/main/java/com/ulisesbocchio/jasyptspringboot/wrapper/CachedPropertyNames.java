@@ -0,0 +1,118 @@
+package com.ulisesbocchio.jasyptspringboot.wrapper;
+
+import com.ulisesbocchio.jasyptspringboot.cache.StringDeduplicator;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Caches the property names of an {@link EnumerablePropertySource} along with a hash set for membership checks, so
+ * that repeated {@code getPropertyNames()} and {@code containsProperty()} calls, as issued by Spring Boot's relaxed
+ * binder, neither rebuild the names of nested sources nor scan the names array.</p>
+ * <p>The cache is validated on every access against a cheap stamp computed from the identity and size of the maps
+ * backing the source, and from the nested sources of composite sources. Mutations that keep the size of every map
+ * unchanged are not detected by the stamp, so names missing from the cache are checked against the source, which
+ * discards the cache when it holds them. Names removed by such mutations are still listed until {@link #refresh()} is
+ * called. Sources whose backing data is not a map cannot be stamped and are never cached. Cached names are
+ * canonicalized by {@link StringDeduplicator} when enabled.</p>
+ *
+ * @author Ulises Bocchio
+ */
+class CachedPropertyNames {
+
+    private static final long NOT_STAMPABLE = Long.MIN_VALUE;
+
+    private final EnumerablePropertySource<?> source;
+    private volatile Snapshot snapshot;
+
+    CachedPropertyNames(EnumerablePropertySource<?> source) {
+        this.source = source;
+    }
+
+    /**
+     * @return a copy of the cached names, so callers cannot alter the cache
+     */
+    String[] getPropertyNames() {
+        Snapshot current = current();
+        return current != null ? current.names.clone() : source.getPropertyNames();
+    }
+
+    boolean containsProperty(String name) {
+        Snapshot current = current();
+        if (current != null && current.nameSet.contains(name)) {
+            return true;
+        }
+        if (!source.containsProperty(name)) {
+            return false;
+        }
+        if (current != null) {
+            // added by a mutation the stamp missed
+            refresh();
+        }
+        return true;
+    }
+
+    void refresh() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        long stamp = stamp(source);
+        if (stamp == NOT_STAMPABLE) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        if (current == null || current.stamp != stamp) {
+            current = new Snapshot(stamp, StringDeduplicator.deduplicate(source.getPropertyNames()));
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private static long stamp(PropertySource<?> propertySource) {
+        if (propertySource instanceof CompositePropertySource) {
+            return stamp(((CompositePropertySource) propertySource).getPropertySources());
+        }
+        Object source = propertySource.getSource();
+        if (source instanceof Map) {
+            return 31L * System.identityHashCode(source) + ((Map<?, ?>) source).size();
+        }
+        if (source instanceof Collection) {
+            return stamp((Collection<?>) source);
+        }
+        return NOT_STAMPABLE;
+    }
+
+    private static long stamp(Collection<?> propertySources) {
+        long stamp = propertySources.size();
+        for (Object nested : propertySources) {
+            if (!(nested instanceof PropertySource)) {
+                return NOT_STAMPABLE;
+            }
+            long nestedStamp = stamp((PropertySource<?>) nested);
+            if (nestedStamp == NOT_STAMPABLE) {
+                return NOT_STAMPABLE;
+            }
+            stamp = 31L * stamp + nestedStamp;
+        }
+        return stamp;
+    }
+
+    private static class Snapshot {
+        private final long stamp;
+        private final String[] names;
+        private final Set<String> nameSet;
+
+        private Snapshot(long stamp, String[] names) {
+            this.stamp = stamp;
+            this.names = names;
+            this.nameSet = new HashSet<String>(Arrays.asList(names));
+        }
+    }
+}
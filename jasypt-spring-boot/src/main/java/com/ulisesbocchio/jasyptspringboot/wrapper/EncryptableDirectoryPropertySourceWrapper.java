@@ -0,0 +1,88 @@
+package com.ulisesbocchio.jasyptspringboot.wrapper;
+
+import com.ulisesbocchio.jasyptspringboot.EncryptablePropertySource;
+import com.ulisesbocchio.jasyptspringboot.Helper;
+import com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessListeners;
+import com.ulisesbocchio.jasyptspringboot.source.DirectoryPropertySource;
+import org.jasypt.encryption.StringEncryptor;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Wrapper for {@link DirectoryPropertySource} instances that decrypts encrypted files on retrieval.</p>
+ * <p>Each file is decrypted when its property is first requested, and the decrypted value is kept until the
+ * delegate reads the file again because it changed, so files are neither read nor decrypted before they are used,
+ * and only once per version.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class EncryptableDirectoryPropertySourceWrapper extends EnumerablePropertySource<File> implements EncryptablePropertySource<File> {
+    private final DirectoryPropertySource delegate;
+    private final StringEncryptor encryptor;
+    private final ConcurrentMap<String, Decrypted> decrypted = new ConcurrentHashMap<String, Decrypted>();
+
+    public EncryptableDirectoryPropertySourceWrapper(DirectoryPropertySource delegate, StringEncryptor encryptor) {
+        super(delegate.getName(), delegate.getSource());
+        Assert.notNull(delegate, "PropertySource delegate cannot be null");
+        Assert.notNull(encryptor, "StringEncryptor cannot be null");
+        this.delegate = delegate;
+        this.encryptor = encryptor;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        Object value = delegate.getProperty(name);
+        if (value == null) {
+            decrypted.remove(name);
+            return null;
+        }
+        String content = (String) value;
+        boolean encrypted = Helper.isEncryptedValue(content, encryptor);
+        if (encrypted) {
+            Decrypted current = decrypted.get(name);
+            // the delegate returns the same instance until the file changes
+            if (current == null || current.content != content) {
+                current = new Decrypted(content, Helper.decrypt(encryptor, content, getName(), name));
+                decrypted.put(name, current);
+            }
+            value = current.value;
+        }
+        if (!PropertyAccessListeners.isEmpty()) {
+            PropertyAccessListeners.propertyRead(getName(), name, encrypted);
+        }
+        return value;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return delegate.getPropertyNames();
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return delegate.containsProperty(name);
+    }
+
+    /**
+     * Lists the delegate's directory again, see {@link DirectoryPropertySource#refresh()}.
+     */
+    public void refresh() {
+        delegate.refresh();
+        decrypted.keySet().retainAll(Arrays.asList(delegate.getPropertyNames()));
+    }
+
+    private static class Decrypted {
+        private final String content;
+        private final String value;
+
+        private Decrypted(String content, String value) {
+            this.content = content;
+            this.value = value;
+        }
+    }
+}
@@ -2,16 +2,24 @@ package com.ulisesbocchio.jasyptspringboot.wrapper;
 
 import com.ulisesbocchio.jasyptspringboot.EncryptablePropertySource;
 import com.ulisesbocchio.jasyptspringboot.Helper;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionPrefetcher;
 import org.jasypt.encryption.StringEncryptor;
 import org.springframework.core.env.EnumerablePropertySource;
 import org.springframework.util.Assert;
 
 /**
+ * <p>Wrapper for {@link EnumerablePropertySource} instances that decrypts encrypted properties on retrieval.</p>
+ * <p>Property names and membership checks are served from a cache that is invalidated when the delegate changes,
+ * see {@link #refresh()}.</p>
+ * <p>Encrypted siblings of decrypted properties are prefetched when {@link DecryptionPrefetcher} is enabled.</p>
+ *
  * @author Ulises Bocchio
  */
 public class EncryptableEnumerablePropertySourceWrapper<T> extends EnumerablePropertySource<T> implements EncryptablePropertySource<T> {
     private final EnumerablePropertySource<T> delegate;
     private final StringEncryptor encryptor;
+    private final CachedPropertyNames propertyNames;
+    private final DecryptionPrefetcher prefetcher;
 
     public EncryptableEnumerablePropertySourceWrapper(EnumerablePropertySource<T> delegate, StringEncryptor encryptor) {
         super(delegate.getName(), delegate.getSource());
@@ -19,15 +27,29 @@ public class EncryptableEnumerablePropertySourceWrapper<T> extends EnumerablePro
         Assert.notNull(encryptor, "StringEncryptor cannot be null");
         this.delegate = delegate;
         this.encryptor = encryptor;
+        this.propertyNames = new CachedPropertyNames(delegate);
+        this.prefetcher = DecryptionPrefetcher.forSource(delegate, encryptor);
     }
 
     @Override
     public Object getProperty(String name) {
-        return Helper.getProperty(encryptor, delegate, name);
+        return Helper.getProperty(encryptor, prefetcher, delegate, name);
     }
 
     @Override
     public String[] getPropertyNames() {
-        return delegate.getPropertyNames();
+        return propertyNames.getPropertyNames();
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return propertyNames.containsProperty(name);
+    }
+
+    /**
+     * Discards the cached property names, for mutations of the delegate that cannot be detected automatically.
+     */
+    public void refresh() {
+        propertyNames.refresh();
     }
 }
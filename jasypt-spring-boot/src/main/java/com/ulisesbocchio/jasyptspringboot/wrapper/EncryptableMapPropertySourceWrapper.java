@@ -2,6 +2,7 @@ package com.ulisesbocchio.jasyptspringboot.wrapper;
 
 import com.ulisesbocchio.jasyptspringboot.EncryptablePropertySource;
 import com.ulisesbocchio.jasyptspringboot.Helper;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionPrefetcher;
 import org.jasypt.encryption.StringEncryptor;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.util.Assert;
@@ -9,11 +10,15 @@ import org.springframework.util.Assert;
 import java.util.Map;
 
 /**
+ * <p>Wrapper for {@link MapPropertySource} instances that decrypts encrypted properties on retrieval.</p>
+ * <p>Encrypted siblings of decrypted properties are prefetched when {@link DecryptionPrefetcher} is enabled.</p>
+ *
  * @author Ulises Bocchio
  */
 public class EncryptableMapPropertySourceWrapper extends MapPropertySource implements EncryptablePropertySource<Map<String, Object>> {
     private final StringEncryptor encryptor;
     private MapPropertySource delegate;
+    private final DecryptionPrefetcher prefetcher;
 
     public EncryptableMapPropertySourceWrapper(MapPropertySource delegate, StringEncryptor encryptor) {
         super(delegate.getName(), delegate.getSource());
@@ -21,10 +26,11 @@ public class EncryptableMapPropertySourceWrapper extends MapPropertySource imple
         Assert.notNull(encryptor, "StringEncryptor cannot be null");
         this.encryptor = encryptor;
         this.delegate = delegate;
+        this.prefetcher = DecryptionPrefetcher.forSource(delegate, encryptor);
     }
 
     @Override
     public Object getProperty(String name) {
-        return Helper.getProperty(encryptor, delegate, name);
+        return Helper.getProperty(encryptor, prefetcher, delegate, name);
     }
 }
@@ -0,0 +1,158 @@
+package com.ulisesbocchio.jasyptspringboot.wrapper;
+
+import com.ulisesbocchio.jasyptspringboot.EncryptablePropertySource;
+import com.ulisesbocchio.jasyptspringboot.Helper;
+import com.ulisesbocchio.jasyptspringboot.cache.StringDeduplicator;
+import com.ulisesbocchio.jasyptspringboot.observation.PropertyAccessListeners;
+import org.jasypt.encryption.StringEncryptor;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.util.Assert;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Wrapper for {@link SystemEnvironmentPropertySource} instances that decrypts encrypted properties on retrieval.</p>
+ * <p>{@link SystemEnvironmentPropertySource} resolves every lookup by trying up to four variants of the name, with
+ * underscores instead of dots and uppercase, and a generic wrapper then checks the value for {@code ENC()}. This wrapper
+ * indexes the variables once instead, by their own name and by the lowercase and dotted names that resolve to them, like
+ * {@code spring.datasource.password} for {@code SPRING_DATASOURCE_PASSWORD}, flagging the encrypted values. Each lookup
+ * is then a single hash probe. Other names are resolved with the same rules as {@link SystemEnvironmentPropertySource}
+ * the first time they are looked up, misses included, and remembered up to a maximum number of names.</p>
+ * <p>The index is rebuilt when the number of variables changes, mutations that keep it unchanged are not detected,
+ * {@link #refresh()} must be called in that case.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class EncryptableSystemEnvironmentPropertySourceWrapper extends SystemEnvironmentPropertySource implements EncryptablePropertySource<Map<String, Object>> {
+
+    private static final int MAX_RESOLVED_NAMES = 10000;
+
+    private static final Variable MISSING = new Variable(null, null);
+
+    private final StringEncryptor encryptor;
+    private volatile Index index;
+
+    public EncryptableSystemEnvironmentPropertySourceWrapper(SystemEnvironmentPropertySource delegate, StringEncryptor encryptor) {
+        super(delegate.getName(), delegate.getSource());
+        Assert.notNull(encryptor, "StringEncryptor cannot be null");
+        this.encryptor = encryptor;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        Variable variable = index().lookup(name);
+        if (variable == MISSING) {
+            return null;
+        }
+        Object value = variable.encrypted ? Helper.decrypt(encryptor, (String) variable.value, getName(), name) : variable.value;
+        if (value != null && !PropertyAccessListeners.isEmpty()) {
+            PropertyAccessListeners.propertyRead(getName(), name, variable.encrypted);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return index().lookup(name) != MISSING;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return index().names.clone();
+    }
+
+    /**
+     * Discards the index, for mutations of the variables that cannot be detected automatically.
+     */
+    public void refresh() {
+        index = null;
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current == null || current.size != source.size()) {
+            current = new Index(source, encryptor);
+            index = current;
+        }
+        return current;
+    }
+
+    private static class Index {
+        private final Map<String, Object> variables;
+        private final int size;
+        private final String[] names;
+        private final ConcurrentMap<String, Variable> lookups;
+
+        private Index(Map<String, Object> variables, StringEncryptor encryptor) {
+            this.variables = variables;
+            this.size = variables.size();
+            this.names = StringDeduplicator.deduplicate(variables.keySet().toArray(new String[0]));
+            this.lookups = new ConcurrentHashMap<String, Variable>(size * 4);
+            for (Map.Entry<String, Object> variable : variables.entrySet()) {
+                lookups.put(variable.getKey(), new Variable(variable.getValue(), encryptor));
+            }
+            for (String name : names) {
+                String lowerCase = name.toLowerCase();
+                index(lowerCase);
+                index(lowerCase.replace('_', '.'));
+                index(name.replace('_', '.'));
+            }
+        }
+
+        private Variable lookup(String name) {
+            Variable variable = lookups.get(name);
+            if (variable != null) {
+                return variable;
+            }
+            Assert.notNull(name, "Property name must not be null");
+            return index(name);
+        }
+
+        private Variable index(String name) {
+            Variable variable = lookups.get(name);
+            if (variable == null) {
+                String variableName = resolveVariableName(name);
+                variable = variableName != null ? lookups.get(variableName) : MISSING;
+                if (lookups.size() < MAX_RESOLVED_NAMES + size) {
+                    lookups.putIfAbsent(name, variable);
+                }
+            }
+            return variable;
+        }
+
+        /**
+         * Same rules as {@link SystemEnvironmentPropertySource}: the name, then with underscores instead of dots, then
+         * both in uppercase.
+         */
+        private String resolveVariableName(String name) {
+            if (variables.containsKey(name)) {
+                return name;
+            }
+            String underscored = name.replace('.', '_');
+            if (!underscored.equals(name) && variables.containsKey(underscored)) {
+                return underscored;
+            }
+            String upperCase = name.toUpperCase();
+            if (!upperCase.equals(name) && variables.containsKey(upperCase)) {
+                return upperCase;
+            }
+            String upperCaseUnderscored = upperCase.replace('.', '_');
+            if (!upperCaseUnderscored.equals(upperCase) && variables.containsKey(upperCaseUnderscored)) {
+                return upperCaseUnderscored;
+            }
+            return null;
+        }
+    }
+
+    private static class Variable {
+        private final Object value;
+        private final boolean encrypted;
+
+        private Variable(Object value, StringEncryptor encryptor) {
+            this.value = value;
+            this.encrypted = value instanceof String && Helper.isEncryptedValue((String) value, encryptor);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ulisesbocchio.jasyptspringboot;
+
+import com.ulisesbocchio.jasyptspringboot.annotation.EnableEncryptableProperties;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionPrefetcher;
+import com.ulisesbocchio.jasyptspringboot.encryptor.DecryptionScheduler;
+import com.ulisesbocchio.jasyptspringboot.environment.EncryptableEnvironment;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class DecryptionFeaturesTest {
+
+    @Test
+    public void stopsFeaturesOnceTheLastRetainerReleasesThem() {
+        Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        properties.put("jasypt.encryptor.prefetch.enabled", "true");
+        properties.put("jasypt.encryptor.prefetch.threads", "1");
+        properties.put("jasypt.encryptor.scheduler.enabled", "true");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+
+        DecryptionFeatures first = DecryptionFeatures.retain(environment);
+        DecryptionFeatures second = DecryptionFeatures.retain(environment);
+        assertTrue(DecryptionPrefetcher.isEnabled());
+        assertTrue(DecryptionScheduler.isEnabled());
+
+        first.release();
+        first.release();
+        assertTrue(DecryptionPrefetcher.isEnabled());
+        assertTrue(DecryptionScheduler.isEnabled());
+
+        second.release();
+        assertFalse(DecryptionPrefetcher.isEnabled());
+        assertFalse(DecryptionScheduler.isEnabled());
+    }
+
+    @Test
+    public void leavesFeaturesEnabledElsewhereUntouched() {
+        Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        properties.put("jasypt.encryptor.scheduler.enabled", "true");
+        StandardEnvironment enabling = new StandardEnvironment();
+        enabling.getPropertySources().addFirst(new MapPropertySource("test", properties));
+
+        DecryptionFeatures enabled = DecryptionFeatures.retain(enabling);
+        DecryptionFeatures.retain(new StandardEnvironment()).release();
+        assertTrue(DecryptionScheduler.isEnabled());
+
+        enabled.release();
+        assertFalse(DecryptionScheduler.isEnabled());
+    }
+
+    @Test
+    public void enablesFeaturesForTheLifetimeOfTheContext() {
+        Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        properties.put("jasypt.encryptor.scheduler.enabled", "true");
+        StandardEnvironment delegate = new StandardEnvironment();
+        delegate.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        EncryptableEnvironment environment = new EncryptableEnvironment(delegate);
+        assertFalse(DecryptionScheduler.isEnabled());
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.setEnvironment(environment);
+        context.register(EncryptablePropertiesConfiguration.class);
+        context.refresh();
+        assertTrue(DecryptionScheduler.isEnabled());
+
+        context.close();
+        assertFalse(DecryptionScheduler.isEnabled());
+    }
+
+    @Configuration
+    @EnableEncryptableProperties
+    static class EncryptablePropertiesConfiguration {
+    }
+}
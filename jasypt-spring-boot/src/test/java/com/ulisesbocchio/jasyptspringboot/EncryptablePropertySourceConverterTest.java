@@ -0,0 +1,62 @@
+package com.ulisesbocchio.jasyptspringboot;
+
+import com.ulisesbocchio.jasyptspringboot.source.DirectoryPropertySource;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.FileCopyUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class EncryptablePropertySourceConverterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void selectsDirectorySourcesWithoutReadingTheirFiles() throws Exception {
+        File directory = folder.newFolder("secrets");
+        FileCopyUtils.copy("plain".getBytes("UTF-8"), new File(directory, "username"));
+        FileCopyUtils.copy("plain".getBytes("UTF-8"), new File(directory, "password"));
+        final List<String> read = new ArrayList<String>();
+        DirectoryPropertySource source = new DirectoryPropertySource("secrets", directory) {
+            @Override
+            public Object getProperty(String name) {
+                read.add(name);
+                return super.getProperty(name);
+            }
+        };
+
+        assertTrue(EncryptablePropertySourceConverter.isEncryptionRequired(source, environment(true), encryptor()));
+        assertFalse(EncryptablePropertySourceConverter.isEncryptionRequired(source, environment(false), encryptor()));
+        assertEquals(Collections.<String>emptyList(), read);
+    }
+
+    private static StandardEnvironment environment(boolean wrapNonEnumerable) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("settings", Collections.<String, Object>singletonMap(
+                "jasypt.encryptor.selectivePropertySources", "true")));
+        environment.getPropertySources().addLast(new MapPropertySource("defaults", Collections.<String, Object>singletonMap(
+                "jasypt.encryptor.wrapNonEnumerablePropertySources", String.valueOf(wrapNonEnumerable))));
+        return environment;
+    }
+
+    private static StandardPBEStringEncryptor encryptor() {
+        StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+        encryptor.setPassword("password");
+        return encryptor;
+    }
+}
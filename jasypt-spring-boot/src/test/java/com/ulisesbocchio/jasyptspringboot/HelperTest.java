@@ -0,0 +1,59 @@
+package com.ulisesbocchio.jasyptspringboot;
+
+import com.ulisesbocchio.jasyptspringboot.encryptor.RoutingStringEncryptor;
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class HelperTest {
+
+    private StandardPBEStringEncryptor aesEncryptor;
+    private RoutingStringEncryptor routingEncryptor;
+    private MapPropertySource source;
+
+    @Before
+    public void setUp() {
+        StandardPBEStringEncryptor defaultEncryptor = new StandardPBEStringEncryptor();
+        defaultEncryptor.setPassword("password");
+        aesEncryptor = new StandardPBEStringEncryptor();
+        aesEncryptor.setPassword("other");
+        routingEncryptor = new RoutingStringEncryptor(defaultEncryptor,
+                Collections.<String, StringEncryptor>singletonMap("aes", aesEncryptor));
+        source = new MapPropertySource("test", Collections.<String, Object>singletonMap("secret",
+                "ENC[aes](" + aesEncryptor.encrypt("secret") + ")"));
+    }
+
+    @Test
+    public void decryptsRoutedValuesWithARoutingEncryptor() {
+        assertTrue(Helper.isEncryptedValue((String) source.getProperty("secret"), routingEncryptor));
+        assertEquals("secret", Helper.getProperty(routingEncryptor, source, "secret"));
+    }
+
+    @Test
+    public void leavesRoutedValuesUnchangedWithOtherEncryptors() {
+        String value = (String) source.getProperty("secret");
+        assertFalse(Helper.isEncryptedValue(value, aesEncryptor));
+        assertEquals(value, Helper.getProperty(aesEncryptor, source, "secret"));
+    }
+
+    @Test
+    public void selectsSourcesWithRoutedValuesOnlyForARoutingEncryptor() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("settings",
+                Collections.<String, Object>singletonMap("jasypt.encryptor.selectivePropertySources", "true")));
+        assertTrue(EncryptablePropertySourceConverter.isEncryptionRequired(source, environment, routingEncryptor));
+        assertFalse(EncryptablePropertySourceConverter.isEncryptionRequired(source, environment, aesEncryptor));
+    }
+}
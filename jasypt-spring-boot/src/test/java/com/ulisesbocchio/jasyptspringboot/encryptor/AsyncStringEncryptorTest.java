@@ -0,0 +1,97 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class AsyncStringEncryptorTest {
+
+    private final CountDownLatch unblocked = new CountDownLatch(1);
+    private final AtomicInteger decryptions = new AtomicInteger();
+    private AsyncStringEncryptor asyncEncryptor;
+
+    @After
+    public void tearDown() {
+        unblocked.countDown();
+        if (asyncEncryptor != null) {
+            asyncEncryptor.destroy();
+        }
+    }
+
+    @Test
+    public void returnsImmediatelyWhenCached() throws Exception {
+        unblocked.countDown();
+        asyncEncryptor = new AsyncStringEncryptor(new ReversingEncryptor(), 1, 1, 10);
+        assertEquals("terces", asyncEncryptor.decrypt("secret").get(5, TimeUnit.SECONDS));
+
+        ListenableFuture<String> cached = asyncEncryptor.decrypt("secret");
+        assertTrue(cached.isDone());
+        assertEquals("terces", cached.get());
+        assertEquals(1, decryptions.get());
+    }
+
+    @Test
+    public void rejectsOperationsWhenThreadsAndQueueAreFull() throws Exception {
+        asyncEncryptor = new AsyncStringEncryptor(new ReversingEncryptor(), 1, 1, 10);
+        ListenableFuture<String> running = asyncEncryptor.decrypt("one");
+        ListenableFuture<String> queued = asyncEncryptor.decrypt("two");
+        ListenableFuture<String> rejected = asyncEncryptor.decrypt("three");
+
+        assertTrue(rejected.isDone());
+        try {
+            rejected.get();
+            fail("Expected the decryption to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        unblocked.countDown();
+        assertEquals("eno", running.get(5, TimeUnit.SECONDS));
+        assertEquals("owt", queued.get(5, TimeUnit.SECONDS));
+        assertEquals("eerht", asyncEncryptor.decrypt("three").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void sharesConcurrentDecryptionsOfTheSameMessage() throws Exception {
+        asyncEncryptor = new AsyncStringEncryptor(new ReversingEncryptor(), 1, 1, 10);
+        ListenableFuture<String> first = asyncEncryptor.decrypt("secret");
+        assertSame(first, asyncEncryptor.decrypt("secret"));
+        unblocked.countDown();
+        assertEquals("terces", first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, decryptions.get());
+    }
+
+    private class ReversingEncryptor implements StringEncryptor {
+
+        @Override
+        public String encrypt(String message) {
+            return new StringBuilder(message).reverse().toString();
+        }
+
+        @Override
+        public String decrypt(String encryptedMessage) {
+            try {
+                unblocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            decryptions.incrementAndGet();
+            return new StringBuilder(encryptedMessage).reverse().toString();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.jasypt.encryption.pbe.config.SimpleStringPBEConfig;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class BufferedPBEStringEncryptorTest {
+
+    private static final List<String> MESSAGES = Arrays.asList("", "secret", "contraseña ü € 密码",
+            new String(new char[1000]).replace('\0', 'x'));
+
+    @Test
+    public void interoperatesWithTheStandardEncryptorInBase64() {
+        assertInteroperable(config("base64"));
+    }
+
+    @Test
+    public void interoperatesWithTheStandardEncryptorInHexadecimal() {
+        assertInteroperable(config("hexadecimal"));
+    }
+
+    @Test
+    public void zeroesTheMessageOnceEncryptedOrDecrypted() throws Exception {
+        BufferedPBEStringEncryptor buffered = new BufferedPBEStringEncryptor(config("base64"));
+        String encrypted = buffered.encrypt("secret");
+        Object buffers = field(buffered, "buffers", ThreadLocal.class).get();
+        assertZeroed(field(buffers, "input", ByteBuffer.class), "secret".length());
+        assertEquals("secret", buffered.decrypt(encrypted));
+        assertZeroed(field(buffers, "output", ByteBuffer.class), "secret".length());
+    }
+
+    private static void assertInteroperable(SimpleStringPBEConfig config) {
+        StandardPBEStringEncryptor standard = new StandardPBEStringEncryptor();
+        standard.setConfig(config);
+        BufferedPBEStringEncryptor buffered = new BufferedPBEStringEncryptor(config);
+        for (String message : MESSAGES) {
+            assertEquals(message, buffered.decrypt(standard.encrypt(message)));
+            assertEquals(message, standard.decrypt(buffered.encrypt(message)));
+        }
+    }
+
+    private static SimpleStringPBEConfig config(String stringOutputType) {
+        SimpleStringPBEConfig config = new SimpleStringPBEConfig();
+        config.setPassword("password");
+        config.setAlgorithm("PBEWithMD5AndDES");
+        config.setKeyObtentionIterations("1000");
+        config.setStringOutputType(stringOutputType);
+        return config;
+    }
+
+    private static void assertZeroed(ByteBuffer buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            assertEquals("byte " + i, 0, buffer.array()[i]);
+        }
+    }
+
+    private static <T> T field(Object target, String name, Class<T> type) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return type.cast(field.get(target));
+    }
+}
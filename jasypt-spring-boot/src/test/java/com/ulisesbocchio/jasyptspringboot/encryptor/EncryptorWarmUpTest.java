@@ -0,0 +1,29 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class EncryptorWarmUpTest {
+
+    @Test
+    public void warmsUpOnceStarted() throws Exception {
+        StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+        encryptor.setPassword("password");
+        EncryptorWarmUp warmUp = new EncryptorWarmUp(encryptor, 2, 3);
+        assertFalse(warmUp.isRunning());
+        assertFalse(warmUp.awaitReady(100, TimeUnit.MILLISECONDS));
+
+        warmUp.start();
+        assertTrue(warmUp.awaitReady(10, TimeUnit.SECONDS));
+        assertTrue(warmUp.isSuccessful());
+        assertFalse(warmUp.isRunning());
+    }
+}
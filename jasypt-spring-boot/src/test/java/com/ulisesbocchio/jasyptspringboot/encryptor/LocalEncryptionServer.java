@@ -0,0 +1,133 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.jasypt.encryption.StringEncryptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ulisesbocchio.jasyptspringboot.encryptor.RemoteStringEncryptor.CHARSET;
+import static com.ulisesbocchio.jasyptspringboot.encryptor.RemoteStringEncryptor.DECRYPT_PATH;
+import static com.ulisesbocchio.jasyptspringboot.encryptor.RemoteStringEncryptor.ENCRYPT_PATH;
+import static com.ulisesbocchio.jasyptspringboot.encryptor.RemoteStringEncryptor.ERROR_PREFIX;
+import static com.ulisesbocchio.jasyptspringboot.encryptor.RemoteStringEncryptor.RESULT_PREFIX;
+
+/**
+ * <p>Embedded stand-in for a central key service, speaking the protocol expected by {@link RemoteStringEncryptor}.
+ * It serves the given {@link StringEncryptor} on the loopback interface, without any authentication, so it is only
+ * meant for tests: it is kept out of the library and published in the {@code tests} classifier of the module.</p>
+ *
+ * @author Ulises Bocchio
+ */
+public class LocalEncryptionServer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalEncryptionServer.class);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger decryptions = new AtomicInteger();
+
+    public LocalEncryptionServer(StringEncryptor encryptor) throws IOException {
+        this(encryptor, 0);
+    }
+
+    public LocalEncryptionServer(StringEncryptor encryptor, int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = Executors.newCachedThreadPool(new RemoteStringEncryptor.DaemonThreadFactory("jasypt-local-server-"));
+        this.server.createContext(ENCRYPT_PATH, new EncryptorHandler(encryptor, null));
+        this.server.createContext(DECRYPT_PATH, new EncryptorHandler(encryptor, decryptions));
+        this.server.setExecutor(executor);
+    }
+
+    public LocalEncryptionServer start() {
+        server.start();
+        LOG.info("Local encryption server listening on {}", getUrl());
+        return this;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Number of values received for decryption.
+     */
+    public int getDecryptions() {
+        return decryptions.get();
+    }
+
+    private static class EncryptorHandler implements HttpHandler {
+        private final StringEncryptor encryptor;
+        private final AtomicInteger decryptions;
+
+        /**
+         * @param decryptions counter of decrypted values, or {@code null} to encrypt
+         */
+        private EncryptorHandler(StringEncryptor encryptor, AtomicInteger decryptions) {
+            this.encryptor = encryptor;
+            this.decryptions = decryptions;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!"POST".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                StringBuilder response = new StringBuilder();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), CHARSET));
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        response.append(apply(URLDecoder.decode(line, CHARSET))).append('\n');
+                    }
+                } finally {
+                    reader.close();
+                }
+                byte[] body = response.toString().getBytes(CHARSET);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=" + CHARSET);
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                try {
+                    out.write(body);
+                } finally {
+                    out.close();
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private String apply(String value) throws IOException {
+            try {
+                if (decryptions == null) {
+                    return RESULT_PREFIX + URLEncoder.encode(encryptor.encrypt(value), CHARSET);
+                }
+                decryptions.incrementAndGet();
+                String result = encryptor.decrypt(value);
+                return RESULT_PREFIX + URLEncoder.encode(result, CHARSET);
+            } catch (RuntimeException e) {
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                return ERROR_PREFIX + URLEncoder.encode(message, CHARSET);
+            }
+        }
+    }
+}
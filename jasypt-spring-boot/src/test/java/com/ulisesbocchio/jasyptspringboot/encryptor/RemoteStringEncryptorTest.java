@@ -0,0 +1,192 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import com.ulisesbocchio.jasyptspringboot.exception.DecryptionException;
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class RemoteStringEncryptorTest {
+
+    private StandardPBEStringEncryptor localEncryptor;
+    private LocalEncryptionServer server;
+    private RemoteStringEncryptor encryptor;
+
+    @Before
+    public void setUp() throws Exception {
+        localEncryptor = new StandardPBEStringEncryptor();
+        localEncryptor.setPassword("password");
+        server = new LocalEncryptionServer(localEncryptor).start();
+        encryptor = new RemoteStringEncryptor(server.getUrl());
+    }
+
+    @After
+    public void tearDown() {
+        encryptor.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void decryptsValuesEncryptedLocally() {
+        assertEquals("secret", encryptor.decrypt(localEncryptor.encrypt("secret")));
+    }
+
+    @Test
+    public void encryptsValuesDecryptableLocally() {
+        assertEquals("secret", localEncryptor.decrypt(encryptor.encrypt("secret")));
+    }
+
+    @Test
+    public void decryptsBatchesInOrder() {
+        assertEquals(Arrays.asList("one", "two", "three"), encryptor.decryptAll(Arrays.asList(
+                localEncryptor.encrypt("one"), localEncryptor.encrypt("two"), localEncryptor.encrypt("three"))));
+    }
+
+    @Test(expected = DecryptionException.class)
+    public void rejectsOperationsAfterShutdown() {
+        encryptor.shutdown();
+        encryptor.decrypt(localEncryptor.encrypt("secret"));
+    }
+
+    @Test
+    public void failsOperationsNotSentYetOnShutdown() throws Exception {
+        final CountDownLatch received = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        LocalEncryptionServer blockingServer = new LocalEncryptionServer(new StringEncryptor() {
+            @Override
+            public String encrypt(String message) {
+                return localEncryptor.encrypt(message);
+            }
+
+            @Override
+            public String decrypt(String encryptedMessage) {
+                received.countDown();
+                try {
+                    released.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return localEncryptor.decrypt(encryptedMessage);
+            }
+        }).start();
+        // a single request thread, busy with the first value, so the second one waits in the executor's queue
+        final RemoteStringEncryptor busy = new RemoteStringEncryptor(blockingServer.getUrl(), 2000, 5000, 1, 0, 1, 10000);
+        try {
+            Thread first = decryptInBackground(busy, localEncryptor.encrypt("first"), new AtomicReference<Throwable>(), new AtomicLong());
+            assertTrue(received.await(5, TimeUnit.SECONDS));
+            AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+            AtomicLong failedAt = new AtomicLong();
+            Thread second = decryptInBackground(busy, localEncryptor.encrypt("second"), error, failedAt);
+            Thread.sleep(200);
+            long shutdownAt = System.nanoTime();
+            busy.shutdown();
+            second.join(5000);
+            assertTrue(error.get() instanceof DecryptionException);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(failedAt.get() - shutdownAt) < 1000);
+            released.countDown();
+            first.join(5000);
+        } finally {
+            released.countDown();
+            busy.shutdown();
+            blockingServer.stop();
+        }
+    }
+
+    @Test
+    public void decryptsWithoutRememberingValues() {
+        RemoteStringEncryptor uncached = new RemoteStringEncryptor(server.getUrl(), 2000, 5000, 100, 5, 4, 10000, 0);
+        try {
+            String encrypted = localEncryptor.encrypt("secret");
+            assertEquals("secret", uncached.decrypt(encrypted));
+            assertEquals("secret", uncached.decrypt(encrypted));
+        } finally {
+            uncached.shutdown();
+        }
+    }
+
+    @Test(expected = DecryptionException.class)
+    public void lazyEncryptorShutsDownRemoteEncryptorOnDestroy() throws Exception {
+        LazyStringEncryptor lazyEncryptor = new LazyStringEncryptor(environment(
+                Collections.<String, Object>singletonMap("jasypt.encryptor.remote.url", server.getUrl())));
+        String encrypted = localEncryptor.encrypt("secret");
+        assertEquals("secret", lazyEncryptor.decrypt(encrypted));
+        lazyEncryptor.destroy();
+        lazyEncryptor.decrypt(localEncryptor.encrypt("other"));
+    }
+
+    @Test
+    public void prefetchesEnvironmentValuesForTheDefaultEncryptorOnly() throws Exception {
+        Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        properties.put("jasypt.encryptor.remote.url", server.getUrl());
+        properties.put("jasypt.encryptor.tenants.acme.remote.url", server.getUrl());
+        properties.put("secret", "ENC(" + localEncryptor.encrypt("secret") + ")");
+        StandardEnvironment environment = environment(properties);
+
+        LazyStringEncryptor tenantEncryptor = new LazyStringEncryptor(environment, "jasypt.encryptor.tenants.acme");
+        tenantEncryptor.encrypt("value");
+        tenantEncryptor.destroy();
+        assertEquals(0, server.getDecryptions());
+
+        LazyStringEncryptor defaultEncryptor = new LazyStringEncryptor(environment);
+        defaultEncryptor.encrypt("value");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getDecryptions() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        defaultEncryptor.destroy();
+        assertEquals(1, server.getDecryptions());
+    }
+
+    @Test
+    public void doesNotPrefetchWhenDisabled() throws Exception {
+        Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        properties.put("jasypt.encryptor.remote.url", server.getUrl());
+        properties.put("jasypt.encryptor.remote.prefetch", "false");
+        properties.put("secret", "ENC(" + localEncryptor.encrypt("secret") + ")");
+        LazyStringEncryptor defaultEncryptor = new LazyStringEncryptor(environment(properties));
+        defaultEncryptor.encrypt("value");
+        defaultEncryptor.destroy();
+        assertEquals(0, server.getDecryptions());
+    }
+
+    private static Thread decryptInBackground(final RemoteStringEncryptor encryptor, final String encrypted,
+                                              final AtomicReference<Throwable> error, final AtomicLong failedAt) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    encryptor.decrypt(encrypted);
+                } catch (RuntimeException e) {
+                    error.set(e);
+                    failedAt.set(System.nanoTime());
+                }
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static StandardEnvironment environment(Map<String, Object> properties) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        return environment;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class SharedEncryptorRegistryTest {
+
+    @After
+    public void tearDown() {
+        SharedEncryptorRegistry.clear();
+    }
+
+    @Test
+    public void dropsTheLeastRecentlyRequestedEncryptors() {
+        SharedEncryptorRegistry.SharedStringEncryptor first = encryptor("password0");
+        SharedEncryptorRegistry.SharedStringEncryptor second = encryptor("password1");
+        for (int i = 2; i < SharedEncryptorRegistry.MAX_ENCRYPTORS; i++) {
+            encryptor("password" + i);
+        }
+        assertSame(first, encryptor("password0"));
+        encryptor("password" + SharedEncryptorRegistry.MAX_ENCRYPTORS);
+        assertEquals(SharedEncryptorRegistry.MAX_ENCRYPTORS, SharedEncryptorRegistry.size());
+        assertSame(first, encryptor("password0"));
+        assertNotSame(second, encryptor("password1"));
+    }
+
+    private static SharedEncryptorRegistry.SharedStringEncryptor encryptor(final String password) {
+        Map<String, String> settings = Collections.singletonMap("password", password);
+        return SharedEncryptorRegistry.getEncryptor(settings, 10, new Callable<StringEncryptor>() {
+            @Override
+            public StringEncryptor call() {
+                StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+                encryptor.setPassword(password);
+                return encryptor;
+            }
+        });
+    }
+}
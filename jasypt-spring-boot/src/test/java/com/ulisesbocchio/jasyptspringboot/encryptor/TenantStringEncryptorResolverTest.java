@@ -0,0 +1,154 @@
+package com.ulisesbocchio.jasyptspringboot.encryptor;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class TenantStringEncryptorResolverTest {
+
+    private static final int TENANTS = 256;
+
+    private StandardPBEStringEncryptor localEncryptor;
+    private LocalEncryptionServer server;
+    private TenantStringEncryptorResolver resolver;
+    private volatile CountDownLatch decrypting;
+    private volatile CountDownLatch resumed;
+
+    @Before
+    public void setUp() throws Exception {
+        localEncryptor = new StandardPBEStringEncryptor();
+        localEncryptor.setPassword("password");
+        server = new LocalEncryptionServer(new StringEncryptor() {
+            @Override
+            public String encrypt(String message) {
+                return localEncryptor.encrypt(message);
+            }
+
+            @Override
+            public String decrypt(String encryptedMessage) {
+                CountDownLatch decrypting = TenantStringEncryptorResolverTest.this.decrypting;
+                if (decrypting != null) {
+                    decrypting.countDown();
+                    try {
+                        resumed.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return localEncryptor.decrypt(encryptedMessage);
+            }
+        }).start();
+        Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < TENANTS; i++) {
+            properties.put(TenantStringEncryptorResolver.TENANTS_PREFIX + "tenant" + i + ".remote.url", server.getUrl());
+        }
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        resolver = new TenantStringEncryptorResolver(environment, 16);
+    }
+
+    @After
+    public void tearDown() {
+        resolver.destroy();
+        server.stop();
+    }
+
+    @Test
+    public void shutsDownEvictedEncryptors() {
+        StringEncryptor encryptor = resolver.getEncryptor("tenant0");
+        assertEquals("secret", encryptor.decrypt(localEncryptor.encrypt("secret")));
+        resolver.evict("tenant0");
+        assertTrue(isDestroyed(encryptor));
+        assertNotSame(encryptor, resolver.getEncryptor("tenant0"));
+        // resolves the tenant again
+        assertEquals("other", encryptor.decrypt(localEncryptor.encrypt("other")));
+    }
+
+    @Test
+    public void shutsDownLeastRecentlyUsedEncryptors() {
+        StringEncryptor first = resolver.getEncryptor("tenant0");
+        assertEquals("secret", first.decrypt(localEncryptor.encrypt("secret")));
+        for (int i = 1; i < TENANTS; i++) {
+            resolver.getEncryptor("tenant" + i);
+        }
+        assertEquals(16, resolver.size());
+        assertTrue(isDestroyed(first));
+    }
+
+    @Test
+    public void shutsDownEncryptorsOnDestroy() {
+        StringEncryptor encryptor = resolver.getEncryptor("tenant0");
+        assertEquals("secret", encryptor.decrypt(localEncryptor.encrypt("secret")));
+        resolver.destroy();
+        assertEquals(0, resolver.size());
+        assertTrue(isDestroyed(encryptor));
+    }
+
+    @Test
+    public void shutsDownEvictedEncryptorsOnceTheirOperationsComplete() throws Exception {
+        final StringEncryptor encryptor = resolver.getEncryptor("tenant0");
+        final String encrypted = localEncryptor.encrypt("secret");
+        decrypting = new CountDownLatch(1);
+        resumed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> decrypted = executor.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    return encryptor.decrypt(encrypted);
+                }
+            });
+            assertTrue(decrypting.await(5, TimeUnit.SECONDS));
+            resolver.evict("tenant0");
+            assertFalse(isDestroyed(encryptor));
+            resumed.countDown();
+            assertEquals("secret", decrypted.get(5, TimeUnit.SECONDS));
+            assertTrue(isDestroyed(encryptor));
+        } finally {
+            decrypting = null;
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void neverSharesTenantEncryptors() {
+        Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        properties.put("jasypt.encryptor.shared", "true");
+        properties.put(TenantStringEncryptorResolver.TENANTS_PREFIX + "acme.password", "password");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        TenantStringEncryptorResolver tenants = new TenantStringEncryptorResolver(environment, 16);
+        try {
+            int shared = SharedEncryptorRegistry.size();
+            assertEquals("secret", tenants.getEncryptor("acme").decrypt(localEncryptor.encrypt("secret")));
+            assertEquals(shared, SharedEncryptorRegistry.size());
+        } finally {
+            tenants.destroy();
+        }
+    }
+
+    private static boolean isDestroyed(StringEncryptor encryptor) {
+        return ((TenantStringEncryptorResolver.TenantEncryptor) encryptor).isDestroyed();
+    }
+}
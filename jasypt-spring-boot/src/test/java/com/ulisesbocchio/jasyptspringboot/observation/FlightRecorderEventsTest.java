@@ -0,0 +1,18 @@
+package com.ulisesbocchio.jasyptspringboot.observation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class FlightRecorderEventsTest {
+
+    @Test
+    public void loadsTheJfrRecorderOnTheBuildJdk() {
+        assertTrue(FlightRecorderEvents.isAvailable());
+        // events are only enabled while a recording runs
+        FlightRecorderEvents.endDecryption(FlightRecorderEvents.beginDecryption(), "source", "property", "PBEWithMD5AndDES");
+    }
+}
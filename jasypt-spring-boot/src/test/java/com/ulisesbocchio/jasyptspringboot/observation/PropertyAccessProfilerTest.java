@@ -0,0 +1,63 @@
+package com.ulisesbocchio.jasyptspringboot.observation;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class PropertyAccessProfilerTest {
+
+    @Test
+    public void countsExactlyWithinCapacity() {
+        PropertyAccessProfiler profiler = new PropertyAccessProfiler(8);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j <= i; j++) {
+                profiler.propertyRead("source", "key" + i, j % 2 == 0);
+            }
+        }
+        List<PropertyAccessProfiler.KeyStatistics> top = profiler.getTopKeys(10);
+        assertEquals(5, top.size());
+        for (int i = 0; i < 5; i++) {
+            PropertyAccessProfiler.KeyStatistics statistics = top.get(i);
+            assertEquals("key" + (4 - i), statistics.getKey());
+            assertEquals(5 - i, statistics.getCount());
+            assertEquals(0, statistics.getError());
+            assertEquals((5 - i + 1) / 2, statistics.getEncryptedCount());
+        }
+    }
+
+    @Test
+    public void keepsHeavyHittersWithinErrorBounds() {
+        PropertyAccessProfiler profiler = new PropertyAccessProfiler(8);
+        Map<String, Integer> reads = new HashMap<String, Integer>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            String key = random.nextBoolean() ? "hot" + random.nextInt(2) : "cold" + random.nextInt(5000);
+            profiler.propertyRead(null, key, false);
+            Integer count = reads.get(key);
+            reads.put(key, count == null ? 1 : count + 1);
+        }
+        assertEquals(20000, profiler.getTotalReads());
+        List<PropertyAccessProfiler.KeyStatistics> top = profiler.getTopKeys(8);
+        long counted = 0;
+        for (PropertyAccessProfiler.KeyStatistics statistics : top) {
+            int actual = reads.get(statistics.getKey());
+            assertTrue(statistics.getCount() >= actual);
+            assertTrue(statistics.getCount() - statistics.getError() <= actual);
+            counted += statistics.getCount();
+        }
+        // Space-Saving keeps the counts adding up to the number of reads
+        assertEquals(20000, counted);
+        // read more than 20000 / 8 times each, so guaranteed to be tracked
+        assertTrue(top.get(0).getKey().startsWith("hot"));
+        assertTrue(top.get(1).getKey().startsWith("hot"));
+    }
+}
@@ -0,0 +1,231 @@
+package com.ulisesbocchio.jasyptspringboot.source;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class EncryptableJdbcPropertySourceTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private StandardPBEStringEncryptor encryptor;
+    private JdbcDataSource database;
+    private long version;
+    private volatile CountDownLatch fetched;
+    private volatile CountDownLatch resumed;
+
+    @Before
+    public void setUp() throws Exception {
+        encryptor = new StandardPBEStringEncryptor();
+        encryptor.setPassword("password");
+        database = new JdbcDataSource();
+        database.setURL("jdbc:h2:mem:settings" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        execute("CREATE TABLE settings (k VARCHAR(255) PRIMARY KEY, v VARCHAR(4000), version BIGINT)");
+        for (int i = 0; i < 25; i++) {
+            put(key(i), i % 2 == 0 ? "ENC(" + encryptor.encrypt("secret" + i) + ")" : "plain" + i);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        execute("SHUTDOWN");
+    }
+
+    @Test
+    public void listsKeysPastTheBatchSize() {
+        EncryptableJdbcPropertySource source = source(100, 10);
+        String[] names = new String[25];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = key(i);
+        }
+        assertArrayEquals(names, source.getPropertyNames());
+        // the greatest version, then three pages of keys
+        assertEquals(4, queries.get());
+        assertTrue(source.containsProperty(key(24)));
+        assertFalse(source.containsProperty("missing"));
+    }
+
+    @Test
+    public void decryptsEncryptedValues() {
+        EncryptableJdbcPropertySource source = source(100, 10);
+        assertEquals("secret0", source.getProperty(key(0)));
+        assertEquals("plain1", source.getProperty(key(1)));
+        assertNull(source.getProperty("missing"));
+    }
+
+    @Test
+    public void fetchesTheNextKeysInBatches() {
+        EncryptableJdbcPropertySource source = source(100, 10);
+        source.getPropertyNames();
+        queries.set(0);
+        for (String name : source.getPropertyNames()) {
+            source.getProperty(name);
+        }
+        assertEquals(3, queries.get());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedRows() {
+        EncryptableJdbcPropertySource source = source(5, 5);
+        source.getPropertyNames();
+        queries.set(0);
+        assertEquals("secret0", source.getProperty(key(0)));
+        assertEquals("plain3", source.getProperty(key(3)));
+        assertEquals(1, queries.get());
+        assertEquals("plain5", source.getProperty(key(5)));
+        assertEquals(2, queries.get());
+        assertEquals("secret0", source.getProperty(key(0)));
+        assertEquals(3, queries.get());
+    }
+
+    @Test
+    public void pollsChangedAndInsertedRows() throws Exception {
+        EncryptableJdbcPropertySource source = source(100, 10);
+        assertEquals("plain1", source.getProperty(key(1)));
+        put(key(1), "ENC(" + encryptor.encrypt("rotated") + ")");
+        put(key(25), "added");
+        assertEquals(2, source.poll());
+        assertEquals("rotated", source.getProperty(key(1)));
+        assertEquals("added", source.getProperty(key(25)));
+        assertEquals(26, source.getPropertyNames().length);
+    }
+
+    @Test
+    public void refreshSeesDeletedRows() throws Exception {
+        EncryptableJdbcPropertySource source = source(100, 10);
+        assertEquals("secret0", source.getProperty(key(0)));
+        execute("DELETE FROM settings WHERE k = '" + key(0) + "'");
+        assertTrue(source.containsProperty(key(0)));
+        source.refresh();
+        assertFalse(source.containsProperty(key(0)));
+        assertNull(source.getProperty(key(0)));
+        assertEquals(24, source.getPropertyNames().length);
+    }
+
+    @Test
+    public void keepsRowsPolledDuringAFetch() throws Exception {
+        final EncryptableJdbcPropertySource source = source(100, 10);
+        source.getPropertyNames();
+        fetched = new CountDownLatch(1);
+        resumed = new CountDownLatch(1);
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                source.getProperty(key(1));
+            }
+        });
+        reader.start();
+        assertTrue(fetched.await(5, TimeUnit.SECONDS));
+        put(key(1), "changed");
+        source.poll();
+        resumed.countDown();
+        reader.join(5000);
+        fetched = null;
+        assertEquals("changed", source.getProperty(key(1)));
+    }
+
+    private EncryptableJdbcPropertySource source(int cacheSize, int batchSize) {
+        return new EncryptableJdbcPropertySource("db", dataSource(), "settings", "k", "v", "version", cacheSize, batchSize, encryptor);
+    }
+
+    private static String key(int i) {
+        return String.format("customer.%02d.key", i);
+    }
+
+    private void put(String key, String value) throws SQLException {
+        execute(String.format("MERGE INTO settings (k, v, version) KEY (k) VALUES ('%s', '%s', %d)", key, value, ++version));
+    }
+
+    private void execute(String sql) throws SQLException {
+        Connection connection = database.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            try {
+                statement.execute(sql);
+            } finally {
+                statement.close();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * The database, counting queries, and pausing fetches of values on the latches once they have read their rows.
+     */
+    private DataSource dataSource() {
+        return proxy(DataSource.class, database, new Interceptor() {
+            @Override
+            public Object intercept(Method method, Object[] args, Object result) {
+                if (!method.getName().equals("getConnection")) {
+                    return result;
+                }
+                return proxy(Connection.class, result, new Interceptor() {
+                    @Override
+                    public Object intercept(Method method, Object[] args, Object result) {
+                        if (!method.getName().equals("prepareStatement")) {
+                            return result;
+                        }
+                        queries.incrementAndGet();
+                        final boolean fetch = ((String) args[0]).contains(" IN (");
+                        return proxy(PreparedStatement.class, result, new Interceptor() {
+                            @Override
+                            public Object intercept(Method method, Object[] args, Object result) throws Exception {
+                                CountDownLatch fetched = EncryptableJdbcPropertySourceTest.this.fetched;
+                                if (fetch && fetched != null && method.getName().equals("executeQuery")) {
+                                    fetched.countDown();
+                                    resumed.await(5, TimeUnit.SECONDS);
+                                }
+                                return result;
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    private interface Interceptor {
+        Object intercept(Method method, Object[] args, Object result) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, final Object target, final Interceptor interceptor) {
+        return (T) Proxy.newProxyInstance(EncryptableJdbcPropertySourceTest.class.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                try {
+                    return interceptor.intercept(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+        });
+    }
+}
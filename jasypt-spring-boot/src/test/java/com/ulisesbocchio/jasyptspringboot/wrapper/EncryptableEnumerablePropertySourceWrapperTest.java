@@ -0,0 +1,59 @@
+package com.ulisesbocchio.jasyptspringboot.wrapper;
+
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.Test;
+import org.springframework.core.env.EnumerablePropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ulises Bocchio
+ */
+public class EncryptableEnumerablePropertySourceWrapperTest {
+
+    @Test
+    public void seesNamesAddedWithoutChangingTheSize() {
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put("removed", "value");
+        EncryptableEnumerablePropertySourceWrapper<Map<String, Object>> wrapper = wrapper(properties);
+        assertTrue(wrapper.containsProperty("removed"));
+
+        properties.remove("removed");
+        properties.put("added", "value");
+        assertTrue(wrapper.containsProperty("added"));
+        assertFalse(wrapper.containsProperty("removed"));
+        assertArrayEquals(new String[]{"added"}, wrapper.getPropertyNames());
+    }
+
+    @Test
+    public void returnedPropertyNamesDoNotAlterTheCache() {
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put("name", "value");
+        EncryptableEnumerablePropertySourceWrapper<Map<String, Object>> wrapper = wrapper(properties);
+
+        wrapper.getPropertyNames()[0] = "changed";
+        assertArrayEquals(new String[]{"name"}, wrapper.getPropertyNames());
+    }
+
+    private static EncryptableEnumerablePropertySourceWrapper<Map<String, Object>> wrapper(Map<String, Object> properties) {
+        StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+        encryptor.setPassword("password");
+        return new EncryptableEnumerablePropertySourceWrapper<Map<String, Object>>(
+                new EnumerablePropertySource<Map<String, Object>>("test", properties) {
+                    @Override
+                    public String[] getPropertyNames() {
+                        return source.keySet().toArray(new String[0]);
+                    }
+
+                    @Override
+                    public Object getProperty(String name) {
+                        return source.get(name);
+                    }
+                }, encryptor);
+    }
+}